@@ -25,6 +25,7 @@ import org.omnifaces.component.output.cache.CacheInitializer;
 import org.omnifaces.config.BeanManager;
 import org.omnifaces.eventlistener.DefaultServletContextListener;
 import org.omnifaces.facesviews.FacesViews;
+import org.omnifaces.util.Platform;
 
 /**
  * <p>
@@ -37,6 +38,9 @@ import org.omnifaces.facesviews.FacesViews;
  * <li>Load {@link Cache} provider and register its filter.
  * <li>Instantiate {@link Eager} application scoped beans.
  * </ol>
+ * <p>
+ * When the servlet context is destroyed, this shuts down the executor service as obtained by
+ * {@link Platform#getExecutorService()}, if it's not container managed.
  *
  * @author Bauke Scholtz
  * @since 2.0
@@ -53,11 +57,16 @@ public class ApplicationListener extends DefaultServletContextListener {
 	@Override
 	public void contextInitialized(ServletContextEvent event) {
 		checkCDIAvailable();
-		EagerBeansRepository.getInstance().instantiateApplicationScoped();
+		EagerBeansRepository.getInstance().instantiateApplicationScoped(event.getServletContext());
 		FacesViews.addMappings(event.getServletContext());
 		CacheInitializer.loadProviderAndRegisterFilter(event.getServletContext());
 	}
 
+	@Override
+	public void contextDestroyed(ServletContextEvent event) {
+		Platform.shutdownExecutorService();
+	}
+
 	private void checkCDIAvailable() {
 		try {
 			BeanManager.INSTANCE.toString();
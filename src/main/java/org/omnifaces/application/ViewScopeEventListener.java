@@ -15,6 +15,8 @@
  */
 package org.omnifaces.application;
 
+import static org.omnifaces.util.Faces.hasSession;
+
 import javax.faces.component.UIViewRoot;
 import javax.faces.event.AbortProcessingException;
 import javax.faces.event.PreDestroyViewMapEvent;
@@ -22,6 +24,7 @@ import javax.faces.event.SystemEvent;
 import javax.faces.event.ViewMapListener;
 
 import org.omnifaces.cdi.viewscope.ViewScopeManager;
+import org.omnifaces.cdi.viewscope.ViewScopeStorageInViewState;
 import org.omnifaces.config.BeanManager;
 
 /**
@@ -45,13 +48,19 @@ public class ViewScopeEventListener implements ViewMapListener {
 
 	/**
 	 * If the event is an instance of {@link PreDestroyViewMapEvent}, which means that the JSF view scope is about to
-	 * be destroyed, then find the current instance of {@link ViewScopeManager} and invoke its
-	 * {@link ViewScopeManager#preDestroyView()} method.
+	 * be destroyed, then invoke {@link ViewScopeStorageInViewState#preDestroyView()} and, if there is a session, find
+	 * the current instance of {@link ViewScopeManager} and invoke its {@link ViewScopeManager#preDestroyView()} method.
+	 * Without a session there can't be any view scoped beans in the session, and this way a stateless view doesn't
+	 * unnecessarily create one.
 	 */
 	@Override
 	public void processEvent(SystemEvent event) throws AbortProcessingException {
 		if (event instanceof PreDestroyViewMapEvent) {
-			BeanManager.INSTANCE.getReference(ViewScopeManager.class).preDestroyView();
+			ViewScopeStorageInViewState.preDestroyView();
+
+			if (hasSession()) {
+				BeanManager.INSTANCE.getReference(ViewScopeManager.class).preDestroyView();
+			}
 		}
 	}
 
@@ -15,7 +15,17 @@
  */
 package org.omnifaces.cdi;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -27,6 +37,16 @@ import javax.enterprise.inject.spi.PassivationCapable;
 /**
  * CDI bean storage. This class is theoretically reusable for multiple CDI scopes. It's currently however only used by
  * the OmniFaces CDI view scope.
+ * <p>
+ * This class has a compact serialized form, which is relevant when the HTTP session is replicated: the bean instances
+ * are written along with their interned bean IDs, so that the same bean ID is written only once per stream, and the
+ * internals of the concurrent map are not written at all.
+ * <p>
+ * Contextual types which are registered via {@link #registerContextual(Contextual)} during deployment get a fixed slot
+ * in an array, so that looking up their beans is a plain array access instead of a map lookup by their possibly long
+ * bean ID. The array of each bean storage grows only up to the highest slot it actually holds a bean for, so that its
+ * footprint doesn't depend on the total amount of registered contextual types. Beans of contextual types which are not
+ * registered are kept in a map by their bean ID.
  *
  * @author Radu Creanga {@literal <rdcrng@gmail.com>}
  * @author Bauke Scholtz
@@ -36,20 +56,72 @@ public class BeanStorage implements Serializable {
 
 	// Constants ------------------------------------------------------------------------------------------------------
 
-	private static final long serialVersionUID = 42L;
+	private static final long serialVersionUID = 43L;
+
+	private static final Object SLOTS_LOCK = new Object();
+	private static final Bean<?>[] NO_BEANS = new Bean<?>[0];
+
+	// Static variables -----------------------------------------------------------------------------------------------
+
+	// Copy-on-write; the slots are only registered during deployment and are read without locking afterwards.
+	private static volatile Map<Contextual<?>, Integer> slotsByContextual = new IdentityHashMap<>();
+	private static volatile Map<String, Integer> slotsById = new HashMap<>();
+	private static volatile String[] idsBySlot = new String[0];
 
 	// Properties -----------------------------------------------------------------------------------------------------
 
-	private final ConcurrentMap<String, Bean<?>> beans;
+	private transient volatile Bean<?>[] beans; // Copy-on-write; beans are created far less often than looked up.
+	private transient volatile ConcurrentMap<String, Bean<?>> beansById;
+	private transient int initialCapacity;
+	private transient volatile long lastAccessedTime;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
 
 	/**
-	 * Construct a new CDI bean storage with the given initial capacity of the map holding all beans.
-	 * @param initialCapacity The initial capacity of the map holding all beans.
+	 * Construct a new CDI bean storage with the given initial capacity of the map holding the beans of contextual types
+	 * which are not registered via {@link #registerContextual(Contextual)}.
+	 * @param initialCapacity The initial capacity of the map holding the beans of unregistered contextual types.
 	 */
 	public BeanStorage(int initialCapacity) {
-		beans = new ConcurrentHashMap<>(initialCapacity);
+		this.initialCapacity = initialCapacity;
+		beans = NO_BEANS;
+		touch();
+	}
+
+	// Registration ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Register the given contextual type, so that its beans get a fixed slot in every bean storage.
+	 * This is supposed to be invoked during deployment only, e.g. from a CDI extension. Registering is idempotent.
+	 * @param type The contextual type of the CDI managed bean. It must be {@link PassivationCapable}.
+	 * @since 2.1
+	 */
+	public static void registerContextual(Contextual<?> type) {
+		synchronized (SLOTS_LOCK) {
+			if (slotsByContextual.containsKey(type)) {
+				return;
+			}
+
+			String id = ((PassivationCapable) type).getId();
+			Integer slot = slotsById.get(id);
+			Map<String, Integer> newSlotsById = slotsById;
+			String[] newIdsBySlot = idsBySlot;
+
+			if (slot == null) {
+				slot = idsBySlot.length;
+				newSlotsById = new HashMap<>(slotsById);
+				newSlotsById.put(id, slot);
+				newIdsBySlot = Arrays.copyOf(idsBySlot, slot + 1);
+				newIdsBySlot[slot] = id;
+			}
+
+			Map<Contextual<?>, Integer> newSlotsByContextual = new IdentityHashMap<>(slotsByContextual);
+			newSlotsByContextual.put(type, slot);
+
+			slotsById = newSlotsById;
+			idsBySlot = newIdsBySlot;
+			slotsByContextual = newSlotsByContextual;
+		}
 	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
@@ -63,7 +135,15 @@ public class BeanStorage implements Serializable {
 	 */
 	public <T> T createBean(Contextual<T> type, CreationalContext<T> context) {
 		Bean<T> bean = new Bean<>(type, context);
-		beans.put(((PassivationCapable) type).getId(), bean);
+		int slot = getSlot(type);
+
+		if (slot >= 0) {
+			setBean(slot, bean);
+		}
+		else {
+			getBeansById().put(((PassivationCapable) type).getId(), bean);
+		}
+
 		return bean.getInstance();
 	}
 
@@ -76,7 +156,17 @@ public class BeanStorage implements Serializable {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T getBean(Contextual<T> type, BeanManager manager) {
-		Bean<T> bean = (Bean<T>) beans.get(((PassivationCapable) type).getId());
+		int slot = getSlot(type);
+		Bean<T> bean;
+
+		if (slot >= 0) {
+			Bean<?>[] beans = this.beans;
+			bean = (slot < beans.length) ? (Bean<T>) beans[slot] : null;
+		}
+		else {
+			ConcurrentMap<String, Bean<?>> beansById = this.beansById;
+			bean = (beansById != null) ? (Bean<T>) beansById.get(((PassivationCapable) type).getId()) : null;
+		}
 
 		if (bean == null) {
 			return null;
@@ -89,15 +179,153 @@ public class BeanStorage implements Serializable {
 		return bean.getInstance();
 	}
 
+	/**
+	 * Returns <code>true</code> if there are no beans managed so far.
+	 * @return <code>true</code> if there are no beans managed so far.
+	 * @since 2.1
+	 */
+	public boolean isEmpty() {
+		for (Bean<?> bean : beans) {
+			if (bean != null) {
+				return false;
+			}
+		}
+
+		return beansById == null || beansById.isEmpty();
+	}
+
+	/**
+	 * Update the last accessed time of this bean storage to now.
+	 * @since 2.1
+	 */
+	public void touch() {
+		lastAccessedTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the time in milliseconds since epoch on which this bean storage was last accessed via {@link #touch()}.
+	 * After deserialization, this is the time of deserialization.
+	 * @return The time in milliseconds since epoch on which this bean storage was last accessed.
+	 * @since 2.1
+	 */
+	public long getLastAccessedTime() {
+		return lastAccessedTime;
+	}
+
 	/**
 	 * Destroy all beans managed so far.
 	 */
 	public synchronized void destroyBeans() { // Not sure if synchronization is absolutely necessary. Just to be on safe side.
-		for (Bean<?> bean : beans.values()) {
-			bean.destroy();
+		Bean<?>[] beans = this.beans;
+		this.beans = NO_BEANS;
+
+		for (Bean<?> bean : beans) {
+			if (bean != null) {
+				bean.destroy();
+			}
 		}
 
-		beans.clear();
+		if (beansById != null) {
+			for (Bean<?> bean : beansById.values()) {
+				bean.destroy();
+			}
+
+			beansById.clear();
+		}
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the registered slot of the given contextual type, or -1 if it isn't registered. The contextual type is
+	 * looked up by identity first, and by bean ID only when the container passes a different instance, e.g. a wrapper.
+	 */
+	private int getSlot(Contextual<?> type) {
+		Integer slot = slotsByContextual.get(type);
+
+		if (slot == null && !slotsById.isEmpty()) {
+			slot = slotsById.get(((PassivationCapable) type).getId());
+		}
+
+		return (slot != null) ? slot : -1;
+	}
+
+	/**
+	 * Put the given bean in the given slot, growing the array up to that slot if necessary. The array is replaced
+	 * instead of modified, so that {@link #getBean(Contextual, BeanManager)} can read it without locking.
+	 */
+	private synchronized void setBean(int slot, Bean<?> bean) {
+		Bean<?>[] newBeans = Arrays.copyOf(beans, Math.max(beans.length, slot + 1));
+		newBeans[slot] = bean;
+		beans = newBeans;
+	}
+
+	private ConcurrentMap<String, Bean<?>> getBeansById() {
+		if (beansById == null) {
+			synchronized (this) {
+				if (beansById == null) {
+					beansById = new ConcurrentHashMap<>(Math.max(initialCapacity, 1));
+				}
+			}
+		}
+
+		return beansById;
+	}
+
+	// Serialization --------------------------------------------------------------------------------------------------
+
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		output.defaultWriteObject();
+		String[] idsBySlot = BeanStorage.idsBySlot;
+		List<String> ids = new ArrayList<>();
+		List<Object> instances = new ArrayList<>();
+
+		Bean<?>[] beans = this.beans;
+
+		for (int i = 0; i < beans.length; i++) {
+			Bean<?> bean = beans[i];
+
+			if (bean != null) {
+				ids.add(idsBySlot[i]);
+				instances.add(bean.getInstance());
+			}
+		}
+
+		if (beansById != null) {
+			for (Entry<String, Bean<?>> entry : beansById.entrySet()) {
+				ids.add(entry.getKey());
+				instances.add(entry.getValue().getInstance());
+			}
+		}
+
+		output.writeInt(ids.size());
+
+		for (int i = 0; i < ids.size(); i++) {
+			output.writeObject(ids.get(i).intern()); // Same instance is written as back reference in same stream.
+			output.writeObject(instances.get(i));
+		}
+	}
+
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		int size = input.readInt();
+		initialCapacity = size;
+		beans = NO_BEANS;
+
+		for (int i = 0; i < size; i++) {
+			String id = (String) input.readObject();
+			Bean<?> bean = new Bean<>(input.readObject());
+			Integer slot = slotsById.get(id);
+
+			if (slot != null) {
+				setBean(slot, bean);
+			}
+			else {
+				getBeansById().put(id, bean);
+			}
+		}
+
+		touch();
 	}
 
 	// Nested classes -------------------------------------------------------------------------------------------------
@@ -118,6 +346,10 @@ public class BeanStorage implements Serializable {
 			instance = type.create(context);
 		}
 
+		public Bean(T instance) { // Used after deserialization; the context will be set on next access.
+			this.instance = instance;
+		}
+
 		public void setContext(Contextual<T> type, CreationalContext<T> context) {
 			this.type = type;
 			this.context = context;
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.cdi;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.omnifaces.cdi.param.ParamExtension;
+
+/**
+ * <p>
+ * The CDI annotation {@link BulkParams} specifies that all {@link Param} fields of the annotated bean must be bound in
+ * one pass instead of each on its own. This is useful for e.g. search and filter pages with many request parameters.
+ * <pre>
+ * &#64;BulkParams
+ * &#64;RequestScoped
+ * public class SearchBacking {
+ *
+ *     &#64;Inject &#64;Param
+ *     private String query;
+ *
+ *     &#64;Inject &#64;Param
+ *     private Integer page;
+ *
+ *     // ...
+ * }
+ * </pre>
+ * <p>
+ * On the first {@link Param} injection into such a bean, the request parameters of all of its {@link Param} fields are
+ * obtained, converted and validated at once, sharing the faces context, the view root and the request parameter map.
+ * The conversion and validation messages are added to the faces context in a batch afterwards, in the order of the
+ * fields. The remaining fields are then injected with the already bound values. This happens only once per request, so
+ * further instances of the bean during the same request get the same values, without the messages being added again.
+ * <p>
+ * Only fields are bound in bulk. {@link Param} annotated constructor and method parameters are still bound on their
+ * own.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see Param
+ * @see ParamExtension
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface BulkParams {
+	//
+}
@@ -109,6 +109,44 @@ import org.omnifaces.cdi.eager.EagerExtension;
  * }
  * </pre>
  *
+ * <h3> Initialization order and threads </h3>
+ *
+ * <p>
+ * By default, <code>@ApplicationScoped</code> beans are instantiated one by one in the current thread. When some of them
+ * take long to initialize, e.g. because they preload a cache, then they can be instantiated concurrently by setting the
+ * {@value org.omnifaces.cdi.eager.EagerBeansRepository#PARAM_NAME_INITIALIZATION_THREADS} context parameter to the
+ * maximum amount of threads to use:
+ *
+ * <pre>
+ * &lt;context-param&gt;
+ *     &lt;param-name&gt;org.omnifaces.EAGER_BEANS_INITIALIZATION_THREADS&lt;/param-name&gt;
+ *     &lt;param-value&gt;4&lt;/param-value&gt;
+ * &lt;/context-param&gt;
+ * </pre>
+ * <p>
+ * If an <code>@ApplicationScoped</code> bean needs another eager bean to be fully initialized first, specify it in
+ * {@link #after()}. This is a hint for ordering only; the bean must still inject the other bean the usual way if it
+ * needs to use it. The time taken to instantiate each bean is logged at level <code>FINE</code>.
+ *
+ * <h3> Background initialization </h3>
+ *
+ * <p>
+ * An <code>@ApplicationScoped</code> bean which takes long to initialize, but is not needed by all requests, can be
+ * instantiated in the background with {@link #async()}, so that the application starts accepting requests sooner. The
+ * {@link #requestURI()} then specifies the requests which depend on the bean:
+ * <pre>
+ * &#64;Eager(async = true, requestURI = "/reports/*")
+ * &#64;ApplicationScoped
+ * public class ReportCache {
+ *     // ...
+ * }
+ * </pre>
+ * <p>
+ * The {@link EagerBeansFilter} will hold matching requests until the bean is ready, up to its
+ * <code>readinessTimeout</code> init param in seconds, which defaults to 0. If the bean is still not ready by then, the
+ * request is rejected with HTTP 503 and a <code>Retry-After</code> header. Health checks can use
+ * {@link EagerBeansRepository#isReady()}.
+ *
  * <h3> Compatibility </h3>
  *
  * <p>
@@ -169,6 +207,10 @@ public @interface Eager {
 	 * <p>
 	 * JSF services will not be available (yet) when the bean is instantiated this way.
 	 * <p>
+	 * Since 2.1, the URI may also be a pattern following the syntax of servlet URL patterns, i.e. a prefix pattern like
+	 * <code>/components/*</code> or an extension pattern like <code>*.xhtml</code>. The patterns are compiled once
+	 * during deployment, so matching them against each request is cheap.
+	 * <p>
 	 * If both this attribute and {@link Eager#viewId()} is specified, this attribute takes precedence for {@link RequestScoped}.
 	 * This attribute <b>can not</b> be used for <code>ViewScoped</code> beans.
 	 *
@@ -195,4 +237,30 @@ public @interface Eager {
 	@Nonbinding
 	String viewId() default "";
 
+	/**
+	 * (Optional, only used in combination with {@link ApplicationScoped}) The eager application scoped beans which must
+	 * be instantiated before this bean is instantiated. This is particularly useful when eager beans are instantiated
+	 * concurrently; any class which is not an eager application scoped bean is ignored. Circular dependencies will
+	 * cause the application to fail to start.
+	 *
+	 * @return The eager application scoped beans which must be instantiated before this bean.
+	 * @since 2.1
+	 */
+	@Nonbinding
+	Class<?>[] after() default {};
+
+	/**
+	 * (Optional, only used in combination with {@link ApplicationScoped}) Whether the bean should be instantiated in a
+	 * background thread after deployment instead of during deployment. In that case, {@link #requestURI()} optionally
+	 * specifies the requests which must wait until the bean is ready. This requires the {@link EagerBeansFilter}.
+	 * <p>
+	 * Other eager beans cannot specify a bean with this attribute in {@link #after()}, but the other way round is
+	 * possible.
+	 *
+	 * @return Whether the bean should be instantiated in a background thread.
+	 * @since 2.1
+	 */
+	@Nonbinding
+	boolean async() default false;
+
 }
\ No newline at end of file
@@ -94,6 +94,9 @@ import org.omnifaces.util.Utils;
  * {@link ParamValue}. Otherwise a {@link ParamValue} instance is injected, but it will contain a <code>null</code>
  * value. In both cases, the conversion and validation messages (if any) will be set in the JSF context then, and
  * {@link FacesContext#isValidationFailed()} will return <code>true</code>.
+ * <p>
+ * If a bean has many {@link Param} fields, consider annotating it with {@link BulkParams}, so that they are bound in
+ * one pass.
  *
  * @since 1.6
  * @author Arjan Tijms
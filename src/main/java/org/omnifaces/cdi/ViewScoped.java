@@ -85,6 +85,27 @@ import org.omnifaces.cdi.viewscope.ViewScopeManager;
  * <p>If none of those context parameters are present, then a default size of
  * {@value org.omnifaces.cdi.viewscope.ViewScopeManager#DEFAULT_MAX_ACTIVE_VIEW_SCOPES} will be used. When a view scoped
  * bean is evicted from the LRU map, then its {@link PreDestroy} will also guaranteed to be invoked.
+ * <p>
+ * Additionally, the maximum idle time in seconds of an active view scope can be configured with the
+ * {@value org.omnifaces.cdi.viewscope.ViewScopeManager#PARAM_NAME_MAX_IDLE_TIME} context parameter. Active view scopes
+ * which are not accessed for longer than that, e.g. because the enduser closed the browser tab, will then be destroyed
+ * on a subsequent request in the same session instead of lingering until LRU eviction or session expire. The default
+ * value is {@value org.omnifaces.cdi.viewscope.ViewScopeManager#DEFAULT_MAX_IDLE_TIME}, which means that there is no
+ * limit.
+ * <h3>Saving in view state</h3>
+ * <p>
+ * When the {@link #saveInViewState()} attribute is set to <code>true</code>, then the bean will not be stored in the
+ * session, but directly in the JSF view map, which in combination with client side state saving (which is then
+ * required) means that the bean will be serialized, compressed and encrypted/signed by JSF into the
+ * <code>javax.faces.ViewState</code> hidden field. There is then no server side state for the bean at all, which saves
+ * server memory and allows horizontal scaling without sticky sessions. The bean should be kept small as it is sent
+ * back and forth on every postback. Note that its {@link PreDestroy} annotated method is in this case not invoked on
+ * session expire, nor on LRU eviction, simply because the bean is not stored in the session.
+ * <pre>
+ * &#64;Named
+ * &#64;ViewScoped(saveInViewState = true)
+ * public class OmniCDIStatelessViewScopedBean implements Serializable {}
+ * </pre>
  *
  * @author Radu Creanga {@literal <rdcrng@gmail.com>}
  * @author Bauke Scholtz
@@ -100,5 +121,13 @@ import org.omnifaces.cdi.viewscope.ViewScopeManager;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
 public @interface ViewScoped {
-	//
+
+	/**
+	 * Sets whether to save the view scoped bean instance in JSF view state instead of in HTTP session. This requires
+	 * client side state saving. Defaults to <code>false</code>.
+	 * @return Whether to save the view scoped bean instance in JSF view state instead of in HTTP session.
+	 * @since 2.1
+	 */
+	boolean saveInViewState() default false;
+
 }
\ No newline at end of file
@@ -15,6 +15,8 @@
  */
 package org.omnifaces.cdi.eager;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
 import static org.omnifaces.cdi.eager.EagerBeansWebListener.SESSION_CREATED;
 import static org.omnifaces.util.Servlets.getRequestRelativeURIWithoutPathParameters;
 
@@ -46,6 +48,11 @@ import org.omnifaces.filter.HttpFilter;
  * beans) will be automatically disabled.
  * <p>
  * Naturally this filter should not be enabled for environments where CDI is not available at all.
+ * <p>
+ * Since 2.1, this filter also holds requests which depend on <code>&#64;Eager(async=true)</code> application scoped beans
+ * which are not ready yet. The maximum time in seconds to hold such a request can be configured with the
+ * <code>readinessTimeout</code> init param, which defaults to 0. When the beans are still not ready after that time, the
+ * request is rejected with HTTP 503 and a <code>Retry-After</code> header.
  *
  * @since 1.8
  * @author Arjan Tijms
@@ -53,14 +60,47 @@ import org.omnifaces.filter.HttpFilter;
  */
 public class EagerBeansFilter extends HttpFilter {
 
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final String INIT_PARAM_READINESS_TIMEOUT = "readinessTimeout";
+	private static final String RETRY_AFTER_SECONDS = "5";
+
+	private static final String ERROR_READINESS_TIMEOUT = "The 'readinessTimeout' init param must be a number."
+		+ " Encountered an invalid value of '%s'.";
+
+	// Vars -----------------------------------------------------------------------------------------------------------
+
+	private long readinessTimeout;
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
 	@Override
 	public void init() throws ServletException {
 		EagerBeansWebListener.disable();
+		String readinessTimeoutParam = getInitParameter(INIT_PARAM_READINESS_TIMEOUT);
+
+		if (readinessTimeoutParam != null) {
+			if (!readinessTimeoutParam.matches("[0-9]{1,9}")) {
+				throw new ServletException(String.format(ERROR_READINESS_TIMEOUT, readinessTimeoutParam));
+			}
+
+			readinessTimeout = Long.valueOf(readinessTimeoutParam);
+		}
 	}
 
 	@Override
-	public void doFilter(HttpServletRequest request, HttpServletResponse response, HttpSession session,	FilterChain chain) throws ServletException, IOException {
-		EagerBeansRepository.getInstance().instantiateByRequestURI(getRequestRelativeURIWithoutPathParameters(request));
+	public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+		String uri = getRequestRelativeURIWithoutPathParameters(request);
+
+		if (!EagerBeansRepository.isReady() && !awaitReady(uri)) {
+			response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+			response.sendError(SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+
+		if (EagerBeansRepository.hasBeansByRequestURI(uri)) {
+			EagerBeansRepository.getInstance().instantiateByRequestURI(uri);
+		}
 
 		chain.doFilter(request, response);
 
@@ -84,4 +124,26 @@ public class EagerBeansFilter extends HttpFilter {
 		}
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}. The HTTP session is only
+	 * needed after the filter chain has been invoked, and is then obtained from the request.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
+	private boolean awaitReady(String uri) throws ServletException {
+		try {
+			return EagerBeansRepository.awaitReady(uri, readinessTimeout, SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServletException(e);
+		}
+	}
+
 }
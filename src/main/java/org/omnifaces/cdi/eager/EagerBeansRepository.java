@@ -15,15 +15,41 @@
  */
 package org.omnifaces.cdi.eager;
 
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.omnifaces.util.Utils.isAnyEmpty;
+import static org.omnifaces.util.Utils.isEmpty;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
+import javax.servlet.ServletContext;
+
+import org.omnifaces.cdi.Eager;
+import org.omnifaces.util.Platform;
 
 /**
  * Bean repository via which various types of eager beans can be instantiated on demand.
@@ -35,15 +61,42 @@ import javax.inject.Inject;
 @ApplicationScoped
 public class EagerBeansRepository {
 
+	/** The context parameter name to specify the amount of threads to instantiate eager application scoped beans with. */
+	public static final String PARAM_NAME_INITIALIZATION_THREADS = "org.omnifaces.EAGER_BEANS_INITIALIZATION_THREADS";
+
+	private static final Logger logger = Logger.getLogger(EagerBeansRepository.class.getName());
+
+	private static final String ASYNC_THREAD_NAME = "OmniFaces-eager-beans";
+
+	private static final String ERROR_INITIALIZATION_THREADS =
+		"The '%s' init param must be a number. Encountered an invalid value of '%s'.";
+	private static final String ERROR_CIRCULAR_DEPENDENCY =
+		"The 'after' attribute of @Eager application scoped beans %s results in a circular dependency.";
+	private static final String ERROR_INTERRUPTED =
+		"Interrupted while instantiating @Eager application scoped beans.";
+	private static final String ERROR_ASYNC_FAILED =
+		"Instantiating @Eager(async=true) application scoped beans failed.";
+	private static final String LOG_BEAN_INSTANTIATED =
+		"@Eager bean %s instantiated in %d ms.";
+	private static final String LOG_BEANS_INSTANTIATED =
+		"%d @Eager application scoped beans instantiated in %d ms using %d thread(s).";
+
 	private static EagerBeansRepository instance;
+	private static volatile RequestURIIndex<Bean<?>> requestScopedBeansRequestURI;
+	private static volatile RequestURIIndex<Bean<?>> asyncApplicationScopedBeansRequestURI;
+	private static volatile Map<Bean<?>, CountDownLatch> asyncApplicationScopedBeansInstantiated;
+	private static volatile Set<Bean<?>> asyncApplicationScopedBeansSucceeded;
+	private static volatile Throwable asyncApplicationScopedBeansFailure;
+	private static volatile boolean ready = true;
 
 	@Inject
 	private BeanManager beanManager;
 
 	private List<Bean<?>> applicationScopedBeans;
+	private List<Bean<?>> asyncApplicationScopedBeans;
+	private Map<Bean<?>, List<Bean<?>>> applicationScopedBeanDependencies;
 	private List<Bean<?>> sessionScopedBeans;
 	private Map<String, List<Bean<?>>> requestScopedBeansViewId;
-	private Map<String, List<Bean<?>>> requestScopedBeansRequestURI;
 
 	public static EagerBeansRepository getInstance() { // Awkward workaround for it being unavailable via @Inject in listeners/filters in Tomcat+OWB.
 		if (instance == null) {
@@ -54,11 +107,159 @@ public class EagerBeansRepository {
 	}
 
 	public void instantiateApplicationScoped() {
-		if (isAnyEmpty(applicationScopedBeans, beanManager)) {
+		instantiateApplicationScoped(1);
+	}
+
+	/**
+	 * Instantiate eager application scoped beans using the amount of threads as specified by the
+	 * {@value #PARAM_NAME_INITIALIZATION_THREADS} context parameter of the given servlet context, if any.
+	 * @param servletContext The involved servlet context.
+	 * @throws IllegalArgumentException When the context parameter is not a number.
+	 * @since 2.1
+	 */
+	public void instantiateApplicationScoped(ServletContext servletContext) {
+		String threads = servletContext.getInitParameter(PARAM_NAME_INITIALIZATION_THREADS);
+
+		try {
+			instantiateApplicationScoped((threads != null) ? Integer.parseInt(threads.trim()) : 1);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException(format(ERROR_INITIALIZATION_THREADS, PARAM_NAME_INITIALIZATION_THREADS, threads), e);
+		}
+	}
+
+	/**
+	 * Instantiate eager application scoped beans using the given amount of threads. Beans are instantiated in the order
+	 * as specified by {@link Eager#after()}. When the given amount of threads is larger than 1, then beans which do not
+	 * depend on each other are instantiated concurrently via {@link Platform#getExecutorService()}, with at most the
+	 * given amount of beans at a time. The instantiation time of each bean is logged at level FINE.
+	 * <p>
+	 * Beans annotated with {@link Eager#async()} are instantiated the same way, but coordinated from a dedicated
+	 * background thread, so that this method returns as soon as the other beans have been instantiated. The coordinator
+	 * deliberately doesn't run on {@link Platform#getExecutorService()}, as it would then occupy a thread of a possibly
+	 * bounded pool while waiting for the bean instantiation tasks it submitted to that very same pool.
+	 * @param threads The amount of threads to instantiate the beans with.
+	 * @throws IllegalStateException When {@link Eager#after()} results in a circular dependency.
+	 * @since 2.1
+	 */
+	public void instantiateApplicationScoped(int threads) {
+		if (beanManager == null) {
 			return;
 		}
 
-		instantiateBeans(applicationScopedBeans);
+		if (!isEmpty(applicationScopedBeans)) {
+			instantiateApplicationScopedBeans(applicationScopedBeans, threads);
+		}
+
+		if (!isEmpty(asyncApplicationScopedBeans)) {
+			instantiateAsyncApplicationScopedBeans(threads);
+		}
+	}
+
+	/**
+	 * Returns whether all {@link Eager#async()} application scoped beans have successfully been instantiated. This is
+	 * always <code>true</code> when there are no such beans. This can be used by e.g. a health check.
+	 * @return Whether all {@link Eager#async()} application scoped beans have successfully been instantiated.
+	 * @since 2.1
+	 */
+	public static boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Wait until all {@link Eager#async()} application scoped beans whose {@link Eager#requestURI()} matches the given
+	 * request URI have been instantiated, or until the given timeout has elapsed, whichever comes first.
+	 * @param relativeRequestURI The request URI relative to the context root.
+	 * @param timeout The maximum time to wait. When 0, then this method will not wait at all.
+	 * @param unit The time unit of the timeout.
+	 * @return <code>true</code> if the beans the given request URI depends on are ready, <code>false</code> if the
+	 * timeout elapsed before that.
+	 * @throws InterruptedException When the current thread is interrupted while waiting.
+	 * @throws IllegalStateException When instantiating any of the beans the given request URI depends on failed.
+	 * @since 2.1
+	 */
+	public static boolean awaitReady(String relativeRequestURI, long timeout, TimeUnit unit) throws InterruptedException {
+		RequestURIIndex<Bean<?>> beans = asyncApplicationScopedBeansRequestURI;
+		Map<Bean<?>, CountDownLatch> instantiated = asyncApplicationScopedBeansInstantiated;
+		Set<Bean<?>> succeeded = asyncApplicationScopedBeansSucceeded;
+
+		if (ready || beans == null || instantiated == null || succeeded == null) {
+			return true;
+		}
+
+		List<Bean<?>> dependencies = beans.get(relativeRequestURI);
+
+		if (dependencies.isEmpty()) {
+			return true;
+		}
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+		for (Bean<?> bean : dependencies) {
+			if (!instantiated.get(bean).await(Math.max(deadline - System.nanoTime(), 0), NANOSECONDS)) {
+				return false;
+			}
+		}
+
+		Throwable failure = asyncApplicationScopedBeansFailure;
+
+		if (failure != null && !succeeded.containsAll(dependencies)) {
+			throw new IllegalStateException(ERROR_ASYNC_FAILED, failure);
+		}
+
+		return true;
+	}
+
+	private void instantiateAsyncApplicationScopedBeans(final int threads) {
+		sortByDependencies(asyncApplicationScopedBeans); // Fail fast on circular dependencies in the current thread.
+		Map<Bean<?>, CountDownLatch> instantiated = new HashMap<>();
+
+		for (Bean<?> bean : asyncApplicationScopedBeans) {
+			instantiated.put(bean, new CountDownLatch(1));
+		}
+
+		asyncApplicationScopedBeansInstantiated = instantiated;
+		asyncApplicationScopedBeansSucceeded = Collections.newSetFromMap(new ConcurrentHashMap<Bean<?>, Boolean>());
+		asyncApplicationScopedBeansFailure = null;
+		ready = false;
+
+		Thread coordinator = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					instantiateApplicationScopedBeans(asyncApplicationScopedBeans, threads);
+					ready = true;
+				}
+				catch (RuntimeException | Error e) {
+					logger.log(Level.SEVERE, ERROR_ASYNC_FAILED, e);
+					asyncApplicationScopedBeansFailure = e;
+
+					for (CountDownLatch latch : asyncApplicationScopedBeansInstantiated.values()) {
+						latch.countDown(); // Release any waiting requests; they will check the failure.
+					}
+				}
+			}
+		}, ASYNC_THREAD_NAME);
+
+		coordinator.setDaemon(true);
+		coordinator.start();
+	}
+
+	private void instantiateApplicationScopedBeans(List<Bean<?>> unsortedBeans, int threads) {
+		long start = System.nanoTime();
+		List<Bean<?>> beans = sortByDependencies(unsortedBeans);
+		int poolSize = Math.max(Math.min(threads, beans.size()), 1);
+
+		if (poolSize > 1) {
+			instantiateBeansConcurrently(beans, poolSize);
+		}
+		else {
+			for (Bean<?> bean : beans) {
+				instantiateBeanTimed(bean);
+			}
+		}
+
+		logger.info(format(LOG_BEANS_INSTANTIATED, beans.size(), NANOSECONDS.toMillis(System.nanoTime() - start), poolSize));
 	}
 
 	public void instantiateSessionScoped() {
@@ -69,8 +270,27 @@ public class EagerBeansRepository {
 		instantiateBeans(sessionScopedBeans);
 	}
 
+	/**
+	 * Returns whether there are any eager request scoped beans whose {@link Eager#requestURI()} matches the given
+	 * request URI. This does not require the repository instance, so callers can use this to skip obtaining it via
+	 * {@link #getInstance()} for requests which don't have any eager beans.
+	 * @param relativeRequestURI The request URI relative to the context root.
+	 * @return Whether there are any eager request scoped beans matching the given request URI.
+	 * @since 2.1
+	 */
+	public static boolean hasBeansByRequestURI(String relativeRequestURI) {
+		RequestURIIndex<Bean<?>> beans = requestScopedBeansRequestURI;
+		return beans != null && !beans.get(relativeRequestURI).isEmpty();
+	}
+
 	public void instantiateByRequestURI(String relativeRequestURI) {
-		instantiateRequestScopedBeans(requestScopedBeansRequestURI, relativeRequestURI);
+		RequestURIIndex<Bean<?>> beans = requestScopedBeansRequestURI;
+
+		if (beans == null || beanManager == null) {
+			return;
+		}
+
+		instantiateBeans(beans.get(relativeRequestURI));
 	}
 
 	public void instantiateByViewID(String viewId) {
@@ -91,10 +311,182 @@ public class EagerBeansRepository {
 		}
 	}
 
+	private void instantiateBean(Bean<?> bean) {
+		beanManager.getReference(bean, bean.getBeanClass(), beanManager.createCreationalContext(bean)).toString();
+	}
+
+	private void instantiateBeanTimed(Bean<?> bean) {
+		long start = System.nanoTime();
+		instantiateBean(bean);
+
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine(format(LOG_BEAN_INSTANTIATED, bean.getBeanClass().getName(), NANOSECONDS.toMillis(System.nanoTime() - start)));
+		}
+
+		Map<Bean<?>, CountDownLatch> instantiated = asyncApplicationScopedBeansInstantiated;
+
+		if (instantiated != null && instantiated.containsKey(bean)) {
+			asyncApplicationScopedBeansSucceeded.add(bean); // Must be done before countdown, see awaitReady().
+			instantiated.get(bean).countDown();
+		}
+	}
+
+	/**
+	 * Instantiate the given beans concurrently. A bean becomes ready as soon as all of its dependencies have been
+	 * instantiated, and ready beans are submitted to the shared executor service as long as less than the given amount
+	 * of threads is in use. The bookkeeping is done in the current thread only, so it doesn't need to be thread safe.
+	 * The given beans must already be sorted by {@link #sortByDependencies(List)}, which guarantees that there are no
+	 * circular dependencies and thus that this method will terminate.
+	 */
+	private void instantiateBeansConcurrently(List<Bean<?>> beans, int threads) {
+		ExecutorService executor = Platform.getExecutorService();
+		CompletionService<Bean<?>> completionService = new ExecutorCompletionService<>(executor);
+		Map<Bean<?>, Integer> pendingDependencies = new HashMap<>();
+		Map<Bean<?>, List<Bean<?>>> dependents = new HashMap<>();
+		Queue<Bean<?>> readyBeans = new ArrayDeque<>();
+		List<Future<Bean<?>>> submittedBeans = new ArrayList<>(beans.size());
+
+		try {
+			for (Bean<?> bean : beans) {
+				List<Bean<?>> dependencies = getDependencies(bean, beans);
+				pendingDependencies.put(bean, dependencies.size());
+
+				for (Bean<?> dependency : dependencies) {
+					List<Bean<?>> beansDependingOnDependency = dependents.get(dependency);
+
+					if (beansDependingOnDependency == null) {
+						beansDependingOnDependency = new ArrayList<>();
+						dependents.put(dependency, beansDependingOnDependency);
+					}
+
+					beansDependingOnDependency.add(bean);
+				}
+
+				if (dependencies.isEmpty()) {
+					readyBeans.add(bean);
+				}
+			}
+
+			int inFlight = 0;
+
+			for (int i = 0; i < beans.size(); i++) {
+				for (; inFlight < threads && !readyBeans.isEmpty(); inFlight++) {
+					submittedBeans.add(submit(completionService, readyBeans.remove()));
+				}
+
+				Bean<?> instantiated = completionService.take().get();
+				inFlight--;
+				List<Bean<?>> beansDependingOnInstantiated = dependents.get(instantiated);
+
+				if (beansDependingOnInstantiated != null) {
+					for (Bean<?> bean : beansDependingOnInstantiated) {
+						int pending = pendingDependencies.get(bean) - 1;
+						pendingDependencies.put(bean, pending);
+
+						if (pending == 0) {
+							readyBeans.add(bean);
+						}
+					}
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ERROR_INTERRUPTED, e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			for (Future<Bean<?>> submittedBean : submittedBeans) {
+				submittedBean.cancel(true); // Has no effect on completed ones; interrupts the others on failure.
+			}
+		}
+	}
+
+	private Future<Bean<?>> submit(CompletionService<Bean<?>> completionService, final Bean<?> bean) {
+		return completionService.submit(new Callable<Bean<?>>() {
+			@Override
+			public Bean<?> call() {
+				instantiateBeanTimed(bean);
+				return bean;
+			}
+		});
+	}
+
+	/**
+	 * Returns the given beans sorted in such way that each bean comes after its dependencies, while keeping the
+	 * original order as much as possible.
+	 */
+	private List<Bean<?>> sortByDependencies(List<Bean<?>> beans) {
+		if (applicationScopedBeanDependencies == null) {
+			return beans;
+		}
+
+		List<Bean<?>> sortedBeans = new ArrayList<>(beans.size());
+		Set<Bean<?>> remainingBeans = new LinkedHashSet<>(beans);
+
+		while (!remainingBeans.isEmpty()) {
+			boolean progress = false;
+
+			for (Iterator<Bean<?>> iterator = remainingBeans.iterator(); iterator.hasNext();) {
+				Bean<?> bean = iterator.next();
+
+				if (sortedBeans.containsAll(getDependencies(bean, beans))) {
+					sortedBeans.add(bean);
+					iterator.remove();
+					progress = true;
+				}
+			}
+
+			if (!progress) {
+				throw new IllegalStateException(format(ERROR_CIRCULAR_DEPENDENCY, remainingBeans));
+			}
+		}
+
+		return sortedBeans;
+	}
+
+	/**
+	 * Returns the dependencies of the given bean which are present in the given beans. Dependencies between
+	 * {@link Eager#async()} beans and other beans are thus not taken into account; the latter are always instantiated
+	 * before the former anyway.
+	 */
+	private List<Bean<?>> getDependencies(Bean<?> bean, List<Bean<?>> beans) {
+		List<Bean<?>> dependencies = (applicationScopedBeanDependencies != null) ? applicationScopedBeanDependencies.get(bean) : null;
+
+		if (dependencies == null) {
+			return Collections.<Bean<?>>emptyList();
+		}
+
+		List<Bean<?>> presentDependencies = new ArrayList<>(dependencies);
+		presentDependencies.retainAll(beans);
+		return presentDependencies;
+	}
+
 	void setApplicationScopedBeans(List<Bean<?>> applicationScopedBeans) {
 		this.applicationScopedBeans = applicationScopedBeans;
 	}
 
+	void setAsyncApplicationScopedBeans(List<Bean<?>> asyncApplicationScopedBeans) {
+		this.asyncApplicationScopedBeans = asyncApplicationScopedBeans;
+	}
+
+	void setAsyncApplicationScopedBeansRequestURI(Map<String, List<Bean<?>>> asyncApplicationScopedBeansRequestURI) {
+		EagerBeansRepository.asyncApplicationScopedBeansRequestURI = new RequestURIIndex<>(asyncApplicationScopedBeansRequestURI);
+	}
+
+	void setApplicationScopedBeanDependencies(Map<Bean<?>, List<Bean<?>>> applicationScopedBeanDependencies) {
+		this.applicationScopedBeanDependencies = applicationScopedBeanDependencies;
+	}
+
 	void setSessionScopedBeans(List<Bean<?>> sessionScopedBeans) {
 		this.sessionScopedBeans = sessionScopedBeans;
 	}
@@ -104,7 +496,7 @@ public class EagerBeansRepository {
 	}
 
 	void setRequestScopedBeansRequestURI(Map<String, List<Bean<?>>> requestScopedBeansRequestURI) {
-		this.requestScopedBeansRequestURI = requestScopedBeansRequestURI;
+		EagerBeansRepository.requestScopedBeansRequestURI = new RequestURIIndex<>(requestScopedBeansRequestURI);
 	}
 
 }
\ No newline at end of file
@@ -74,6 +74,10 @@ public class EagerBeansWebListener implements HttpSessionListener, ServletReques
 		if (!disabled) {
 			String uri = getRequestRelativeURIWithoutPathParameters((HttpServletRequest) event.getServletRequest());
 
+			if (!EagerBeansRepository.hasBeansByRequestURI(uri)) {
+				return;
+			}
+
 			try {
 				EagerBeansRepository.getInstance().instantiateByRequestURI(uri);
 			}
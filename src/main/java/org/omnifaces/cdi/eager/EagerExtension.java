@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -70,6 +71,9 @@ public class EagerExtension implements Extension {
 	// Variables ------------------------------------------------------------------------------------------------------
 
 	private List<Bean<?>> applicationScopedBeans = new ArrayList<>();
+	private List<Bean<?>> asyncApplicationScopedBeans = new ArrayList<>();
+	private Map<String, List<Bean<?>>> asyncApplicationScopedBeansRequestURI = new HashMap<>();
+	private Map<Bean<?>, Class<?>[]> applicationScopedBeansAfter = new HashMap<>();
 	private List<Bean<?>> sessionScopedBeans = new ArrayList<>();
 
 	private Map<String, List<Bean<?>>> requestScopedBeansViewId = new HashMap<>();
@@ -87,7 +91,11 @@ public class EagerExtension implements Extension {
 			Bean<?> bean = event.getBean();
 
 			if (getAnnotation(beanManager, annotated, ApplicationScoped.class) != null) {
-				applicationScopedBeans.add(bean);
+				addApplicationScopedBean(eager, bean);
+
+				if (eager.after().length > 0) {
+					applicationScopedBeansAfter.put(bean, eager.after());
+				}
 			} else if (getAnnotation(beanManager, annotated, SessionScoped.class) != null) {
 				sessionScopedBeans.add(bean);
 			} else if (getAnnotation(beanManager, annotated, RequestScoped.class) != null) {
@@ -113,6 +121,15 @@ public class EagerExtension implements Extension {
 			eagerBeansRepository.setApplicationScopedBeans(unmodifiableList(applicationScopedBeans));
 		}
 
+		if (!asyncApplicationScopedBeans.isEmpty()) {
+			eagerBeansRepository.setAsyncApplicationScopedBeans(unmodifiableList(asyncApplicationScopedBeans));
+			eagerBeansRepository.setAsyncApplicationScopedBeansRequestURI(unmodifiableMap(asyncApplicationScopedBeansRequestURI));
+		}
+
+		if (!applicationScopedBeansAfter.isEmpty()) {
+			eagerBeansRepository.setApplicationScopedBeanDependencies(getApplicationScopedBeanDependencies());
+		}
+
 		if (!sessionScopedBeans.isEmpty()) {
 			eagerBeansRepository.setSessionScopedBeans(unmodifiableList(sessionScopedBeans));
 		}
@@ -128,6 +145,26 @@ public class EagerExtension implements Extension {
 
 	// Helpers --------------------------------------------------------------------------------------------------------
 
+	private void addApplicationScopedBean(Eager eager, Bean<?> bean) {
+		if (!eager.async()) {
+			applicationScopedBeans.add(bean);
+			return;
+		}
+
+		asyncApplicationScopedBeans.add(bean);
+
+		if (!isEmpty(eager.requestURI())) {
+			List<Bean<?>> beans = asyncApplicationScopedBeansRequestURI.get(eager.requestURI());
+
+			if (beans == null) {
+				beans = new ArrayList<>();
+				asyncApplicationScopedBeansRequestURI.put(eager.requestURI(), beans);
+			}
+
+			beans.add(bean);
+		}
+	}
+
 	private void addRequestScopedBean(Eager eager, Bean<?> bean) {
 		if (!isEmpty(eager.requestURI())) {
 			getRequestScopedBeansByRequestURI(eager.requestURI()).add(bean);
@@ -154,6 +191,32 @@ public class EagerExtension implements Extension {
 		}
 	}
 
+	/**
+	 * Resolve the classes in {@link Eager#after()} to the collected eager application scoped beans. Classes which do
+	 * not represent an eager application scoped bean are ignored, as those are instantiated on demand anyway.
+	 */
+	private Map<Bean<?>, List<Bean<?>>> getApplicationScopedBeanDependencies() {
+		Map<Bean<?>, List<Bean<?>>> dependencies = new HashMap<>();
+		List<Bean<?>> allApplicationScopedBeans = new ArrayList<>(applicationScopedBeans);
+		allApplicationScopedBeans.addAll(asyncApplicationScopedBeans);
+
+		for (Entry<Bean<?>, Class<?>[]> entry : applicationScopedBeansAfter.entrySet()) {
+			List<Bean<?>> beans = new ArrayList<>();
+
+			for (Class<?> type : entry.getValue()) {
+				for (Bean<?> bean : allApplicationScopedBeans) {
+					if (bean != entry.getKey() && type.isAssignableFrom(bean.getBeanClass()) && !beans.contains(bean)) {
+						beans.add(bean);
+					}
+				}
+			}
+
+			dependencies.put(entry.getKey(), unmodifiableList(beans));
+		}
+
+		return unmodifiableMap(dependencies);
+	}
+
 	private List<Bean<?>> getRequestScopedBeansByViewId(String viewId) {
 		List<Bean<?>> beans = requestScopedBeansViewId.get(viewId);
 		if (beans == null) {
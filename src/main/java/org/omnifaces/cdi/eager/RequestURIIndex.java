@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.cdi.eager;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * An index of values by request URI patterns, compiled once into a character trie so that finding all values matching
+ * a given request URI takes time proportional to the length of the request URI and does not allocate any objects.
+ * <p>
+ * The patterns follow the syntax of servlet URL patterns:
+ * <ul>
+ * <li><code>/foo/bar</code> matches exactly the request URI <code>/foo/bar</code>.
+ * <li><code>/foo/*</code> matches the request URI <code>/foo</code> and everything below <code>/foo/</code>.
+ * <li><code>/*</code> matches every request URI.
+ * <li><code>*.ext</code> matches every request URI ending with <code>.ext</code>.
+ * </ul>
+ * <p>
+ * Unlike servlet URL patterns, all matching patterns contribute to the result, not only the most specific one. The
+ * result for every trie node is therefore precomputed during compilation.
+ *
+ * @author Bauke Scholtz
+ * @param <V> The value type.
+ * @since 2.1
+ * @see EagerBeansRepository
+ */
+final class RequestURIIndex<V> {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final String PREFIX_PATTERN_SUFFIX = "/*";
+	private static final String EXTENSION_PATTERN_PREFIX = "*.";
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final Node<V> root = new Node<>();
+	private final String[] extensions;
+	private final List<List<V>> extensionValues;
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Compile the given values by request URI pattern into an index.
+	 * @param valuesByPattern The values by request URI pattern.
+	 */
+	public RequestURIIndex(Map<String, List<V>> valuesByPattern) {
+		List<String> extensions = new ArrayList<>();
+		extensionValues = new ArrayList<>();
+
+		for (Entry<String, List<V>> entry : valuesByPattern.entrySet()) {
+			String pattern = entry.getKey();
+
+			if (pattern.startsWith(EXTENSION_PATTERN_PREFIX)) {
+				extensions.add(pattern.substring(1));
+				extensionValues.add(unmodifiableList(new ArrayList<>(entry.getValue())));
+			}
+			else if (pattern.endsWith(PREFIX_PATTERN_SUFFIX)) {
+				root.add(pattern.substring(0, pattern.length() - PREFIX_PATTERN_SUFFIX.length())).addPrefix(entry.getValue());
+			}
+			else {
+				root.add(pattern).addExact(entry.getValue());
+			}
+		}
+
+		this.extensions = extensions.toArray(new String[extensions.size()]);
+		root.compile(Collections.<V>emptyList());
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns all values whose pattern matches the given request URI, or an empty list if there is none.
+	 * @param requestURI The request URI, relative to the context root.
+	 * @return All values whose pattern matches the given request URI, or an empty list if there is none.
+	 */
+	public List<V> get(String requestURI) {
+		List<V> values = getByPath(requestURI);
+
+		for (int i = 0; i < extensions.length; i++) {
+			if (requestURI.endsWith(extensions[i])) {
+				values = concat(values, extensionValues.get(i)); // Only allocates when a path pattern matches as well.
+			}
+		}
+
+		return values;
+	}
+
+	private List<V> getByPath(String requestURI) {
+		Node<V> node = root;
+
+		for (int i = 0; i < requestURI.length(); i++) {
+			Node<V> child = node.get(requestURI.charAt(i));
+
+			if (child == null) {
+				// A missing "/" child still is a path boundary, so the prefix patterns of this node match as well.
+				return (requestURI.charAt(i) == '/') ? node.inheritedAtBoundary : node.inherited;
+			}
+
+			node = child;
+		}
+
+		return node.matches;
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private static <V> List<V> concat(List<V> list1, List<V> list2) {
+		if (list1.isEmpty()) {
+			return list2;
+		}
+		else if (list2.isEmpty()) {
+			return list1;
+		}
+
+		List<V> list = new ArrayList<>(list1.size() + list2.size());
+		list.addAll(list1);
+		list.addAll(list2);
+		return unmodifiableList(list);
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * A single trie node, representing the path from the root up to and including its last character.
+	 */
+	private static final class Node<V> {
+
+		private char[] characters = new char[0];
+		private Node<V>[] children = newArray(0);
+		private List<V> exact;
+		private List<V> prefix;
+
+		/** The values of prefix patterns matching everything below this node, i.e. ancestors at a path boundary. */
+		private List<V> inherited;
+
+		/** The values of prefix patterns matching everything below the path of this node plus a <code>/</code>. */
+		private List<V> inheritedAtBoundary;
+
+		/** The values of all patterns matching the path of exactly this node. */
+		private List<V> matches;
+
+		public Node<V> get(char character) {
+			for (int i = 0; i < characters.length; i++) {
+				if (characters[i] == character) {
+					return children[i];
+				}
+			}
+
+			return null;
+		}
+
+		public Node<V> add(String path) {
+			Node<V> node = this;
+
+			for (int i = 0; i < path.length(); i++) {
+				Node<V> child = node.get(path.charAt(i));
+
+				if (child == null) {
+					child = new Node<>();
+					node.characters = Arrays.copyOf(node.characters, node.characters.length + 1);
+					node.characters[node.characters.length - 1] = path.charAt(i);
+					node.children = Arrays.copyOf(node.children, node.children.length + 1);
+					node.children[node.children.length - 1] = child;
+				}
+
+				node = child;
+			}
+
+			return node;
+		}
+
+		public void addExact(List<V> values) {
+			exact = concat((exact != null) ? exact : Collections.<V>emptyList(), values);
+		}
+
+		public void addPrefix(List<V> values) {
+			prefix = concat((prefix != null) ? prefix : Collections.<V>emptyList(), values);
+		}
+
+		/**
+		 * Precompute the results of this node and all of its children, given the values inherited from prefix patterns
+		 * of ancestors. Prefix patterns of this node are only passed down via a <code>/</code> child, so that e.g.
+		 * <code>/foo/*</code> does not match <code>/foobar</code>.
+		 */
+		public void compile(List<V> inherited) {
+			this.inherited = inherited;
+			inheritedAtBoundary = (prefix != null) ? concat(inherited, prefix) : inherited;
+			matches = (exact != null) ? concat(inheritedAtBoundary, exact) : inheritedAtBoundary;
+
+			for (int i = 0; i < characters.length; i++) {
+				children[i].compile((characters[i] == '/') ? inheritedAtBoundary : inherited);
+			}
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private static <V> Node<V>[] newArray(int length) {
+			return new Node[length];
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.cdi.param;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.faces.application.FacesMessage;
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+
+import org.omnifaces.cdi.BulkParams;
+import org.omnifaces.cdi.Param;
+
+/**
+ * The bulk binding of all {@link Param} fields of a bean annotated with {@link BulkParams}. On the first {@link Param}
+ * injection into such a bean, all of its {@link Param} fields are bound in a single pass, sharing the faces context,
+ * the view root and the request parameter map, and all of their messages are added in a batch. The values are kept in
+ * the faces context, so that the fields are bound only once per request, also when multiple instances of the bean are
+ * created during the request. This way the conversion and validation messages are not added twice.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see BulkParams
+ * @see ParamExtension
+ */
+final class ParamBinding {
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final List<ParamDescriptor> descriptors = new ArrayList<>();
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Add the given descriptor to this binding. This is only invoked during deployment.
+	 */
+	void add(ParamDescriptor descriptor) {
+		descriptors.add(descriptor);
+	}
+
+	/**
+	 * Returns the bound value of the given descriptor. If it's not yet bound in the current request, then bind all
+	 * descriptors first.
+	 */
+	ParamValue<?> get(FacesContext context, ParamDescriptor descriptor, Bean<?> bean) {
+		@SuppressWarnings("unchecked")
+		Map<ParamDescriptor, ParamValue<?>> values = (Map<ParamDescriptor, ParamValue<?>>) context.getAttributes().get(this);
+
+		if (values == null) {
+			values = bind(context, bean);
+			context.getAttributes().put(this, values);
+		}
+
+		return values.get(descriptor);
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private Map<ParamDescriptor, ParamValue<?>> bind(FacesContext context, Bean<?> bean) {
+		UIComponent component = context.getViewRoot();
+		Map<String, String> requestParameters = context.getExternalContext().getRequestParameterMap();
+		List<FacesMessage> messages = new ArrayList<>();
+		Map<ParamDescriptor, ParamValue<?>> values = new IdentityHashMap<>(descriptors.size());
+
+		for (ParamDescriptor descriptor : descriptors) {
+			values.put(descriptor, RequestParameterProducer.bind(context, component, descriptor, bean, requestParameters, messages));
+		}
+
+		RequestParameterProducer.addMessages(context, component, messages);
+		return values;
+	}
+
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.cdi.param;
+
+import static java.beans.Introspector.getBeanInfo;
+import static java.beans.PropertyEditorManager.findEditor;
+import static java.lang.Boolean.valueOf;
+import static java.util.Collections.unmodifiableList;
+import static javax.faces.validator.BeanValidator.DISABLE_DEFAULT_BEAN_VALIDATOR_PARAM_NAME;
+import static org.omnifaces.util.FacesLocal.evaluateExpressionGet;
+import static org.omnifaces.util.FacesLocal.getInitParameter;
+import static org.omnifaces.util.Platform.isBeanValidationAvailable;
+import static org.omnifaces.util.Reflection.instance;
+import static org.omnifaces.util.Utils.containsByClassName;
+import static org.omnifaces.util.Utils.isEmpty;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.inject.spi.AnnotatedField;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.faces.application.Application;
+import javax.faces.context.FacesContext;
+import javax.faces.convert.Converter;
+import javax.faces.validator.BeanValidator;
+import javax.faces.validator.Validator;
+
+import org.omnifaces.cdi.Param;
+
+/**
+ * The resolved metadata of a single {@link Param} injection point. This is built once per injection point, so that
+ * everything which does not depend on the current request is not resolved again on every injection: literal names,
+ * labels and messages, the converter and validator classes and IDs, and the setters and coerced values of the
+ * converter and validator attributes. Only attributes which are actually EL expressions are evaluated on every
+ * injection.
+ * <p>
+ * Descriptors of fields are built during deployment by {@link ParamExtension} and otherwise lazily on first injection.
+ * They are cached per bean class and field, because an inherited field may be bound differently in each subclass.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see RequestParameterProducer
+ */
+final class ParamDescriptor {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final ConcurrentMap<Key, ParamDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final Param param;
+	private final Class<?> targetType;
+	private final String memberName;
+	private final boolean paramValueType;
+	private final ParamBinding binding;
+	private final Text name;
+	private final Text label;
+	private final Text converterMessage;
+	private final Text validatorMessage;
+	private final Text requiredMessage;
+
+	private final String converterExpression;
+	private final String converterId;
+	private final Class<? extends Converter> converterClass;
+	private final Attributes converterAttributes;
+
+	private final String[] validators;
+	private final Class<? extends Validator>[] validatorClasses;
+	private final Attributes validatorAttributes;
+
+	private volatile Boolean beanValidationEnabled;
+	private volatile Map<String, String> defaultValidators;
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private ParamDescriptor(Param param, Type type, String memberName, ParamBinding binding) {
+		this.param = param;
+		targetType = getTargetType(type);
+		this.memberName = memberName;
+		paramValueType = (type instanceof ParameterizedType) && ((ParameterizedType) type).getRawType().equals(ParamValue.class);
+		this.binding = binding;
+		name = isEmpty(param.name()) ? new Text(memberName) : new Text(param.name());
+		label = isEmpty(param.label()) ? name : new Text(param.label());
+		converterMessage = new Text(param.converterMessage());
+		validatorMessage = new Text(param.validatorMessage());
+		requiredMessage = new Text(param.requiredMessage());
+
+		String converter = param.converter();
+		converterExpression = isExpression(converter) ? converter : null;
+		converterId = (!isEmpty(converter) && converterExpression == null) ? converter : null;
+		converterClass = param.converterClass().equals(Converter.class) ? null : param.converterClass();
+		converterAttributes = new Attributes(param.converterAttributes());
+
+		validators = param.validators();
+		validatorClasses = param.validatorClasses();
+		validatorAttributes = new Attributes(param.validatorAttributes());
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Build and cache the descriptor of the given {@link Param} annotated field of the given bean class.
+	 * @param beanClass The bean class, which may also be a subclass of the class declaring the field.
+	 * @param field The {@link Param} annotated field.
+	 * @param binding The bulk binding of the bean class, or <code>null</code> if there is none.
+	 */
+	static void register(Class<?> beanClass, AnnotatedField<?> field, ParamBinding binding) {
+		ParamDescriptor descriptor = new ParamDescriptor(
+			field.getAnnotation(Param.class), field.getBaseType(), field.getJavaMember().getName(), binding);
+
+		if (DESCRIPTORS.putIfAbsent(new Key(beanClass, field.getJavaMember()), descriptor) == null && binding != null) {
+			binding.add(descriptor);
+		}
+	}
+
+	/**
+	 * Returns the descriptor of the given {@link Param} injection point. This is only cached when the injection point
+	 * is a field of a bean.
+	 * @param param The {@link Param} annotation of the injection point.
+	 * @param injectionPoint The injection point.
+	 * @return The descriptor of the given {@link Param} injection point.
+	 */
+	static ParamDescriptor of(Param param, InjectionPoint injectionPoint) {
+		Member member = injectionPoint.getMember();
+		Key key = (injectionPoint.getBean() != null && injectionPoint.getAnnotated() instanceof AnnotatedField)
+			? new Key(injectionPoint.getBean().getBeanClass(), member) : null;
+		ParamDescriptor descriptor = (key != null) ? DESCRIPTORS.get(key) : null;
+
+		if (descriptor == null) {
+			descriptor = new ParamDescriptor(param, injectionPoint.getType(), member.getName(), null);
+
+			if (key != null) {
+				DESCRIPTORS.putIfAbsent(key, descriptor);
+			}
+		}
+
+		return descriptor;
+	}
+
+	/**
+	 * Returns a new, uncached, descriptor of the given {@link Param} for the given target type. This is intended for
+	 * resolving the converter outside an injection, such as after deserialization of a {@link ParamValue}.
+	 * @param param The {@link Param} annotation.
+	 * @param targetType The type to convert to.
+	 * @return A new descriptor of the given {@link Param} for the given target type.
+	 */
+	static ParamDescriptor of(Param param, Class<?> targetType) {
+		return new ParamDescriptor(param, targetType, null, null);
+	}
+
+	/**
+	 * Returns the request parameter name, evaluated if necessary.
+	 */
+	String getName(FacesContext context) {
+		return name.get(context);
+	}
+
+	/**
+	 * Returns the label, evaluated if necessary.
+	 */
+	String getLabel(FacesContext context) {
+		return label.get(context);
+	}
+
+	String getConverterMessage(FacesContext context) {
+		return converterMessage.get(context);
+	}
+
+	String getValidatorMessage(FacesContext context) {
+		return validatorMessage.get(context);
+	}
+
+	String getRequiredMessage(FacesContext context) {
+		return requiredMessage.get(context);
+	}
+
+	/**
+	 * Returns a new converter with its attributes set, or <code>null</code> if there is none.
+	 */
+	Converter createConverter(FacesContext context) {
+		Converter converter = null;
+
+		if (converterExpression != null) {
+			Object expressionResult = evaluateExpressionGet(context, converterExpression);
+
+			if (expressionResult instanceof Converter) {
+				converter = (Converter) expressionResult;
+			}
+			else if (expressionResult instanceof String) {
+				converter = context.getApplication().createConverter((String) expressionResult);
+			}
+		}
+		else if (converterId != null) {
+			converter = context.getApplication().createConverter(converterId);
+		}
+		else if (converterClass != null) {
+			converter = instance(converterClass);
+		}
+
+		if (converter == null) {
+			try {
+				converter = context.getApplication().createConverter(targetType);
+			}
+			catch (Exception e) {
+				return null;
+			}
+		}
+
+		if (converter != null) {
+			converterAttributes.apply(context, converter);
+		}
+
+		return converter;
+	}
+
+	/**
+	 * Returns new validators with their attributes set, including the application's default validators except of the
+	 * bean validator.
+	 */
+	List<Validator> createValidators(FacesContext context) {
+		List<Validator> validators = new ArrayList<>();
+		Application application = context.getApplication();
+
+		for (String validator : this.validators) {
+			Object validatorResult = isExpression(validator) ? evaluateExpressionGet(context, validator) : validator;
+
+			if (validatorResult instanceof Validator) {
+				validators.add((Validator) validatorResult);
+			}
+			else if (validatorResult instanceof String) {
+				validators.add(application.createValidator((String) validatorResult));
+			}
+		}
+
+		for (Class<? extends Validator> validatorClass : validatorClasses) {
+			validators.add(instance(validatorClass));
+		}
+
+		for (Entry<String, String> defaultValidator : getDefaultValidators(application).entrySet()) {
+			if (!containsByClassName(validators, defaultValidator.getValue())) {
+				validators.add(application.createValidator(defaultValidator.getKey()));
+			}
+		}
+
+		for (Validator validator : validators) {
+			validatorAttributes.apply(context, validator);
+		}
+
+		return validators;
+	}
+
+	/**
+	 * Returns whether bean validation should be performed. The global part of this decision is resolved only once.
+	 */
+	boolean isBeanValidationEnabled(FacesContext context) {
+		if (param.disableBeanValidation()) {
+			return false;
+		}
+
+		if (beanValidationEnabled == null) {
+			beanValidationEnabled = (param.overrideGlobalBeanValidationDisabled()
+				|| !valueOf(getInitParameter(context, DISABLE_DEFAULT_BEAN_VALIDATOR_PARAM_NAME)))
+				&& isBeanValidationAvailable();
+		}
+
+		return beanValidationEnabled;
+	}
+
+	Param getParam() {
+		return param;
+	}
+
+	Class<?> getTargetType() {
+		return targetType;
+	}
+
+	String getMemberName() {
+		return memberName;
+	}
+
+	boolean isParamValueType() {
+		return paramValueType;
+	}
+
+	ParamBinding getBinding() {
+		return binding;
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private Map<String, String> getDefaultValidators(Application application) {
+		if (defaultValidators == null) {
+			Map<String, String> validators = new LinkedHashMap<>(application.getDefaultValidatorInfo());
+			validators.remove(BeanValidator.VALIDATOR_ID); // This one is handled in a special way.
+			defaultValidators = validators;
+		}
+
+		return defaultValidators;
+	}
+
+	private static Class<?> getTargetType(Type type) {
+		if (type instanceof ParameterizedType) {
+			// Assumes ParamValue now.
+			return (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0];
+		}
+		else if (type instanceof Class) {
+			// Direct injection into class type using dynamic producer.
+			return (Class<?>) type;
+		}
+
+		return null;
+	}
+
+	private static boolean isExpression(String value) {
+		return value != null && (value.contains("#{") || value.contains("${"));
+	}
+
+	private static String evaluateAsString(FacesContext context, String expression) {
+		Object result = evaluateExpressionGet(context, expression);
+		return (result != null) ? result.toString() : null;
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * The cache key of a descriptor: the bean class and the field.
+	 */
+	private static final class Key {
+
+		private final Class<?> beanClass;
+		private final Member member;
+
+		public Key(Class<?> beanClass, Member member) {
+			this.beanClass = beanClass;
+			this.member = member;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) object;
+			return beanClass.equals(other.beanClass) && member.equals(other.member);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * beanClass.hashCode() + member.hashCode();
+		}
+
+	}
+
+	/**
+	 * A text which is either literal, or an EL expression which is evaluated on every get.
+	 */
+	private static final class Text {
+
+		private final String value;
+		private final boolean expression;
+
+		public Text(String value) {
+			this.value = value;
+			expression = isExpression(value);
+		}
+
+		public String get(FacesContext context) {
+			return expression ? evaluateAsString(context, value) : value;
+		}
+
+	}
+
+	/**
+	 * The converter or validator attributes. The setters are resolved once per converter or validator class and the
+	 * literal values are coerced once per property type. This replaces {@link org.omnifaces.util.Reflection#setPropertiesWithCoercion(Object, Map)}
+	 * on every injection.
+	 */
+	private static final class Attributes {
+
+		private final Map<String, String> attributes = new LinkedHashMap<>();
+		private final ConcurrentMap<Class<?>, List<AttributeSetter>> settersByClass = new ConcurrentHashMap<>();
+
+		public Attributes(Attribute[] attributes) {
+			for (Attribute attribute : attributes) {
+				this.attributes.put(attribute.name(), attribute.value());
+			}
+		}
+
+		public void apply(FacesContext context, Object object) {
+			if (attributes.isEmpty()) {
+				return;
+			}
+
+			List<AttributeSetter> setters = settersByClass.get(object.getClass());
+
+			if (setters == null) {
+				setters = createSetters(context, object.getClass());
+				settersByClass.putIfAbsent(object.getClass(), setters);
+			}
+
+			for (AttributeSetter setter : setters) {
+				setter.apply(context, object);
+			}
+		}
+
+		private List<AttributeSetter> createSetters(FacesContext context, Class<?> type) {
+			List<AttributeSetter> setters = new ArrayList<>();
+
+			try {
+				for (PropertyDescriptor property : getBeanInfo(type).getPropertyDescriptors()) {
+					if (property.getWriteMethod() != null && attributes.containsKey(property.getName())) {
+						setters.add(new AttributeSetter(context, property, attributes.get(property.getName())));
+					}
+				}
+			}
+			catch (IntrospectionException e) {
+				throw new IllegalStateException(e);
+			}
+
+			return unmodifiableList(setters);
+		}
+
+	}
+
+	/**
+	 * A single resolved converter or validator attribute setter.
+	 */
+	private static final class AttributeSetter {
+
+		private final Method setter;
+		private final Class<?> type;
+		private final String expression;
+		private final Object value;
+
+		public AttributeSetter(FacesContext context, PropertyDescriptor property, String value) {
+			setter = property.getWriteMethod();
+			type = property.getPropertyType();
+			expression = isExpression(value) ? value : null;
+			this.value = (expression == null) ? coerce(evaluateExpressionGet(context, value), type) : null;
+		}
+
+		public void apply(FacesContext context, Object object) {
+			Object valueToSet = (expression != null) ? coerce(evaluateExpressionGet(context, expression), type) : value;
+
+			try {
+				setter.invoke(object, valueToSet);
+			}
+			catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private static Object coerce(Object value, Class<?> type) {
+			if (value instanceof String && !type.equals(String.class)) {
+				PropertyEditor editor = findEditor(type); // Not thread safe, so a new one is needed for every coercion.
+				editor.setAsText((String) value);
+				return editor.getValue();
+			}
+
+			return value;
+		}
+
+	}
+
+}
@@ -23,6 +23,7 @@ import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessManagedBean;
 
+import org.omnifaces.cdi.BulkParams;
 import org.omnifaces.cdi.Param;
 
 /**
@@ -34,6 +35,10 @@ import org.omnifaces.cdi.Param;
  * This extension collects the target types of each injection point qualified with
  * the {@link Param} annotation and dynamically registers Beans that effectively
  * represents producers for each type.
+ * <p>
+ * Additionally, since 2.1, this extension builds the {@link ParamDescriptor} of each {@link Param} annotated field
+ * during deployment, so that it doesn't need to be resolved on every injection, and it groups the descriptors of beans
+ * annotated with {@link BulkParams} into a {@link ParamBinding}.
  *
  * @since 2.0
  * @author Arjan Tijms
@@ -43,9 +48,15 @@ public class ParamExtension implements Extension {
 	private Set<Type> types = new HashSet<>();
 
 	public <T> void collect(@Observes ProcessManagedBean<T> event) {
+		ParamBinding binding = event.getAnnotatedBeanClass().isAnnotationPresent(BulkParams.class) ? new ParamBinding() : null;
+
 		for (AnnotatedField<? super T> field : event.getAnnotatedBeanClass().getFields()) {
-			if (field.isAnnotationPresent(Param.class) && field.getBaseType() instanceof Class) {
-				types.add(field.getBaseType());
+			if (field.isAnnotationPresent(Param.class)) {
+				ParamDescriptor.register(event.getAnnotatedBeanClass().getJavaClass(), field, binding);
+
+				if (field.getBaseType() instanceof Class) {
+					types.add(field.getBaseType());
+				}
 			}
 		}
 	}
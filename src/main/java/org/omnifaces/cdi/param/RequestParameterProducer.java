@@ -12,39 +12,24 @@
  */
 package org.omnifaces.cdi.param;
 
-import static java.lang.Boolean.valueOf;
-import static javax.faces.validator.BeanValidator.DISABLE_DEFAULT_BEAN_VALIDATOR_PARAM_NAME;
 import static org.omnifaces.util.Beans.getQualifier;
-import static org.omnifaces.util.Faces.evaluateExpressionGet;
-import static org.omnifaces.util.Faces.getApplication;
-import static org.omnifaces.util.Faces.getInitParameter;
-import static org.omnifaces.util.FacesLocal.getRequestParameter;
 import static org.omnifaces.util.Messages.createError;
 import static org.omnifaces.util.Platform.getBeanValidator;
-import static org.omnifaces.util.Platform.isBeanValidationAvailable;
-import static org.omnifaces.util.Reflection.instance;
-import static org.omnifaces.util.Reflection.setPropertiesWithCoercion;
-import static org.omnifaces.util.Utils.containsByClassName;
 import static org.omnifaces.util.Utils.isEmpty;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.InjectionPoint;
-import javax.faces.application.Application;
 import javax.faces.application.FacesMessage;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
 import javax.faces.convert.Converter;
 import javax.faces.convert.ConverterException;
-import javax.faces.validator.BeanValidator;
 import javax.faces.validator.RequiredValidator;
 import javax.faces.validator.Validator;
 import javax.faces.validator.ValidatorException;
@@ -73,16 +58,39 @@ public class RequestParameterProducer {
 		// @Param is the annotation on the injection point that holds all data for this request parameter
 		Param requestParameter = getQualifier(injectionPoint, Param.class);
 
+		// The descriptor holds everything of the @Param which doesn't need to be resolved on every request
+		ParamDescriptor descriptor = ParamDescriptor.of(requestParameter, injectionPoint);
+
 		FacesContext context = FacesContext.getCurrentInstance();
-		UIComponent component = context.getViewRoot();
 
-		String label = getLabel(requestParameter, injectionPoint);
+		// If the bean is annotated with @BulkParams, all of its @Param fields are bound at once
+		ParamBinding binding = descriptor.getBinding();
+		if (binding != null) {
+			return (ParamValue<V>) binding.get(context, descriptor, injectionPoint.getBean());
+		}
+
+		UIComponent component = context.getViewRoot();
+		List<FacesMessage> messages = new ArrayList<>();
+		ParamValue<?> paramValue = bind(context, component, descriptor, injectionPoint.getBean(),
+			context.getExternalContext().getRequestParameterMap(), messages);
+		addMessages(context, component, messages);
+		return (ParamValue<V>) paramValue;
+	}
+
+	/**
+	 * Obtain, convert and validate the request parameter represented by the given descriptor. Any messages are added
+	 * to the given list instead of to the given context, so that they can be added in a batch.
+	 */
+	static ParamValue<?> bind(FacesContext context, UIComponent component, ParamDescriptor descriptor, Bean<?> bean,
+		Map<String, String> requestParameters, List<FacesMessage> messages)
+	{
+		String label = descriptor.getLabel(context);
 
 		// TODO: Save/restore existing potentially existing label?
 		component.getAttributes().put("label", label);
 
 		// Get raw submitted value from the request
-		String submittedValue = getRequestParameter(context, getName(requestParameter, injectionPoint));
+		String submittedValue = requestParameters.get(descriptor.getName(context));
 		Object convertedValue = null;
 		boolean valid = true;
 
@@ -90,7 +98,7 @@ public class RequestParameterProducer {
 
 			// Convert the submitted value
 
-			Converter converter = getConverter(requestParameter, getTargetType(injectionPoint));
+			Converter converter = descriptor.createConverter(context);
 			if (converter != null) {
 				convertedValue = converter.getAsObject(context, component, submittedValue);
 			} else {
@@ -99,36 +107,36 @@ public class RequestParameterProducer {
 
 			// Check for required
 
-			if (requestParameter.required() && isEmpty(convertedValue)) {
-				addRequiredMessage(context, component, label, submittedValue, getRequiredMessage(requestParameter));
+			if (descriptor.getParam().required() && isEmpty(convertedValue)) {
+				addRequiredMessage(context, component, label, submittedValue, descriptor.getRequiredMessage(context), messages);
 			}
 
 			// Validate the converted value
 
 			// 1. Use Bean Validation validators
-			if (shouldDoBeanValidation(requestParameter)) {
+			if (descriptor.isBeanValidationEnabled(context)) {
 
-				Set<ConstraintViolation<?>> violations = doBeanValidation(convertedValue, injectionPoint);
+				Set<ConstraintViolation<?>> violations = doBeanValidation(convertedValue, bean, descriptor);
 
 				valid = violations.isEmpty();
 
 				for (ConstraintViolation<?> violation : violations) {
-					context.addMessage(component.getClientId(context), createError(violation.getMessage(), label));
+					messages.add(createError(violation.getMessage(), label));
 				}
 			}
 
 			// 2. Use JSF native validators
-			for (Validator validator : getValidators(requestParameter)) {
+			for (Validator validator : descriptor.createValidators(context)) {
 				try {
 					validator.validate(context, component, convertedValue);
 				} catch (ValidatorException ve) {
 					valid = false;
-					addValidatorMessages(context, component, label, submittedValue, ve, getValidatorMessage(requestParameter));
+					addValidatorMessages(label, submittedValue, ve, descriptor.getValidatorMessage(context), messages);
 				}
 			}
 		} catch (ConverterException ce) {
 			valid = false;
-			addConverterMessage(context, component, label, submittedValue, ce, getConverterMessage(requestParameter));
+			addConverterMessage(label, submittedValue, ce, descriptor.getConverterMessage(context), messages);
 		}
 
 		if (!valid) {
@@ -136,140 +144,39 @@ public class RequestParameterProducer {
 			convertedValue = null;
 		}
 
-		return (ParamValue<V>) new ParamValue<>(submittedValue, requestParameter, getTargetType(injectionPoint), convertedValue);
-	}
-
-	public static Converter getConverter(Param requestParameter, Class<?> targetType) {
-
-		Class<? extends Converter> converterClass = requestParameter.converterClass();
-		String converterName = requestParameter.converter();
-
-		Converter converter = null;
-
-		if (!isEmpty(converterName)) {
-			Object expressionResult = evaluateExpressionGet(converterName);
-			if (expressionResult instanceof Converter) {
-				converter = (Converter) expressionResult;
-			} else if (expressionResult instanceof String) {
-				converter = getApplication().createConverter((String) expressionResult);
-			}
-		} else if (!converterClass.equals(Converter.class)) { // Converter.class is default, representing null
-			converter = instance(converterClass);
-		}
-
-		if (converter == null) {
-			try {
-				converter = getApplication().createConverter(targetType);
-			} catch (Exception e) {
-				return null;
-			}
-		}
-
-		if (converter != null) {
-			setPropertiesWithCoercion(converter, getConverterAttributes(requestParameter));
-		}
-
-		return converter;
-	}
-
-	@SuppressWarnings("unchecked")
-	private <V> Class<V> getTargetType(InjectionPoint injectionPoint) {
-		Type type = injectionPoint.getType();
-		if (type instanceof ParameterizedType) {
-			// Assumes ParamValue now. Needs to be adjusted later.
-			return (Class<V>) ((ParameterizedType) type).getActualTypeArguments()[0];
-		} else if (type instanceof Class) {
-			// Direct injection into class type using dynamic producer
-			return  (Class<V>)  type;
-		}
-
-		return null;
-	}
-
-	private String getName(Param requestParameter, InjectionPoint injectionPoint) {
-
-		String name = requestParameter.name();
-
-		if (isEmpty(name)) {
-			name = injectionPoint.getMember().getName();
-		} else {
-			name = evaluateExpressionAsString(name);
-		}
-
-		return name;
+		return new ParamValue<>(submittedValue, descriptor.getParam(), descriptor.getTargetType(), convertedValue);
 	}
 
-	private String getLabel(Param requestParameter, InjectionPoint injectionPoint) {
-
-		String label = requestParameter.label();
-
-		if (isEmpty(label)) {
-			label = getName(requestParameter, injectionPoint);
-		} else {
-			label = evaluateExpressionAsString(label);
-		}
-
-		return label;
-	}
-
-	private String getValidatorMessage(Param requestParameter) {
-		return evaluateExpressionAsString(requestParameter.validatorMessage());
-	}
-
-	private String getConverterMessage(Param requestParameter) {
-		return evaluateExpressionAsString(requestParameter.converterMessage());
-	}
-
-	private String getRequiredMessage(Param requestParameter) {
-		return evaluateExpressionAsString(requestParameter.requiredMessage());
-	}
-
-	private String evaluateExpressionAsString(String expression) {
-
-		if (isEmpty(expression)) {
-			return expression;
+	/**
+	 * Add the given messages to the given context, on the client ID of the given component.
+	 */
+	static void addMessages(FacesContext context, UIComponent component, List<FacesMessage> messages) {
+		if (messages.isEmpty()) {
+			return;
 		}
 
-		Object expressionResult = evaluateExpressionGet(expression);
+		String clientId = component.getClientId(context);
 
-		if (expressionResult == null) {
-			return null;
+		for (FacesMessage message : messages) {
+			context.addMessage(clientId, message);
 		}
-
-		return expressionResult.toString();
 	}
 
-	private boolean shouldDoBeanValidation(Param requestParameter) {
-
-		// If bean validation is explicitly disabled for this instance, immediately return false
-		if (requestParameter.disableBeanValidation()) {
-			return false;
-		}
-
-		// Next check if bean validation has been disabled globally, but only if this hasn't been overridden locally
-		if (!requestParameter.overrideGlobalBeanValidationDisabled() && valueOf(getInitParameter(DISABLE_DEFAULT_BEAN_VALIDATOR_PARAM_NAME))) {
-			return false;
-		}
-
-		// For all other cases, the availability of bean validation determines if we attempt bean validation or not.
-		return isBeanValidationAvailable();
+	public static Converter getConverter(Param requestParameter, Class<?> targetType) {
+		return ParamDescriptor.of(requestParameter, targetType).createConverter(FacesContext.getCurrentInstance());
 	}
 
-	private Set<ConstraintViolation<?>> doBeanValidation(Object value, InjectionPoint injectionPoint) {
+	private static Set<ConstraintViolation<?>> doBeanValidation(Object value, Bean<?> bean, ParamDescriptor descriptor) {
 
-		Class<?> base = injectionPoint.getBean().getBeanClass();
-		String property = injectionPoint.getMember().getName();
-		Type type = injectionPoint.getType();
+		Class<?> base = bean.getBeanClass();
+		String property = descriptor.getMemberName();
 
 		// Check if the target property in which we are injecting in our special holder/wrapper type
 		// ParamValue or not. If it's the latter, pre-wrap our value (otherwise types for bean validation
 		// would not match)
 		Object valueOrWrapper = value;
-		if (type instanceof ParameterizedType) {
-			Type propertyRawType = ((ParameterizedType) type).getRawType();
-			if (propertyRawType.equals(ParamValue.class)) {
-				valueOrWrapper = new ParamValue<>(null, null, null, value);
-			}
+		if (descriptor.isParamValueType()) {
+			valueOrWrapper = new ParamValue<>(null, null, null, value);
 		}
 
 		@SuppressWarnings("rawtypes")
@@ -281,78 +188,7 @@ public class RequestParameterProducer {
 		return violations;
 	}
 
-	private List<Validator> getValidators(Param requestParameter) {
-
-		List<Validator> validators = new ArrayList<>();
-
-		Class<? extends Validator>[] validatorClasses = requestParameter.validatorClasses();
-		String[] validatorNames = requestParameter.validators();
-
-		for (String validatorName : validatorNames) {
-			Object validator = evaluateExpressionGet(validatorName);
-			if (validator instanceof Validator) {
-				validators.add((Validator) validator);
-			} else if (validator instanceof String) {
-				validators.add(getApplication().createValidator(validatorName));
-			}
-		}
-
-		for (Class<? extends Validator> validatorClass : validatorClasses) {
-			validators.add(instance(validatorClass));
-		}
-
-		// Process the default validators
-
-		Application application = getApplication();
-		for (Entry<String, String> validatorEntry :	application.getDefaultValidatorInfo().entrySet()) {
-
-			String validatorID = validatorEntry.getKey();
-			String validatorClassName = validatorEntry.getValue();
-
-			// Check that the validator ID is not the BeanValidator one which we handle in a special way.
-			// And make sure the default validator is not already set manually as well.
-			if (!validatorID.equals(BeanValidator.VALIDATOR_ID) && !containsByClassName(validators, validatorClassName)) {
-				validators.add(application.createValidator(validatorID));
-			}
-		}
-
-		// Set the attributes on all instantiated validators. We don't distinguish here
-		// which attribute should go to which validator.
-		Map<String, Object> validatorAttributes = getValidatorAttributes(requestParameter);
-		for (Validator validator : validators) {
-			setPropertiesWithCoercion(validator, validatorAttributes);
-		}
-
-		return validators;
-	}
-
-	private static Map<String, Object> getConverterAttributes(Param requestParameter) {
-
-		Map<String, Object> attributeMap = new HashMap<>();
-
-		Attribute[] attributes = requestParameter.converterAttributes();
-		for (Attribute attribute : attributes) {
-			attributeMap.put(attribute.name(), evaluateExpressionGet(attribute.value()));
-		}
-
-		return attributeMap;
-	}
-
-	private Map<String, Object> getValidatorAttributes(Param requestParameter) {
-
-		Map<String, Object> attributeMap = new HashMap<>();
-
-		Attribute[] attributes = requestParameter.validatorAttributes();
-		for (Attribute attribute : attributes) {
-			attributeMap.put(attribute.name(), evaluateExpressionGet(attribute.value()));
-		}
-
-		return attributeMap;
-	}
-
-
-
-	private void addConverterMessage(FacesContext context, UIComponent component, String label, String submittedValue, ConverterException ce, String converterMessage) {
+	private static void addConverterMessage(String label, String submittedValue, ConverterException ce, String converterMessage, List<FacesMessage> messages) {
 		FacesMessage message = null;
 
 		if (!isEmpty(converterMessage)) {
@@ -365,10 +201,10 @@ public class RequestParameterProducer {
 			}
 		}
 
-		context.addMessage(component.getClientId(context), message);
+		messages.add(message);
 	}
 
-	private void addRequiredMessage(FacesContext context, UIComponent component, String label, String submittedValue, String requiredMessage) {
+	private static void addRequiredMessage(FacesContext context, UIComponent component, String label, String submittedValue, String requiredMessage, List<FacesMessage> messages) {
 
 		FacesMessage message = null;
 
@@ -391,19 +227,14 @@ public class RequestParameterProducer {
 			}
 		}
 
-		context.addMessage(component.getClientId(context), message);
+		messages.add(message);
 	}
 
-	private void addValidatorMessages(FacesContext context, UIComponent component, String label, String submittedValue, ValidatorException ve, String validatorMessage) {
-
-		String clientId = component.getClientId(context);
-
+	private static void addValidatorMessages(String label, String submittedValue, ValidatorException ve, String validatorMessage, List<FacesMessage> messages) {
 		if (!isEmpty(validatorMessage)) {
-			context.addMessage(clientId, createError(validatorMessage, submittedValue, label));
+			messages.add(createError(validatorMessage, submittedValue, label));
 		} else {
-			for (FacesMessage facesMessage : getFacesMessages(ve)) {
-				context.addMessage(clientId, facesMessage);
-			}
+			messages.addAll(getFacesMessages(ve));
 		}
 	}
 
@@ -18,6 +18,8 @@ package org.omnifaces.cdi.viewscope;
 import static org.omnifaces.util.BeansLocal.getReference;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Set;
 
 import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.spi.Context;
@@ -25,6 +27,7 @@ import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.PassivationCapable;
 import javax.faces.component.UIViewRoot;
 import javax.faces.context.FacesContext;
 
@@ -46,6 +49,7 @@ public class ViewScopeContext implements Context {
 	private BeanManager manager;
 	private Bean<ViewScopeManager> bean;
 	private ViewScopeManager viewScopeManager;
+	private Set<String> beanIdsSavedInViewState;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
 
@@ -55,8 +59,20 @@ public class ViewScopeContext implements Context {
 	 * @param bean The view scope manager bean.
 	 */
 	public ViewScopeContext(BeanManager manager, Bean<ViewScopeManager> bean) {
+		this(manager, bean, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Construct a new view scope context.
+	 * @param manager The bean manager.
+	 * @param bean The view scope manager bean.
+	 * @param beanIdsSavedInViewState The IDs of view scoped beans which should be saved in JSF view state.
+	 * @since 2.1
+	 */
+	public ViewScopeContext(BeanManager manager, Bean<ViewScopeManager> bean, Set<String> beanIdsSavedInViewState) {
 		this.manager = manager;
 		this.bean = bean;
+		this.beanIdsSavedInViewState = beanIdsSavedInViewState;
 	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
@@ -82,13 +98,27 @@ public class ViewScopeContext implements Context {
 	@Override
 	public <T> T get(Contextual<T> type) {
 		checkActive();
+
+		if (isSavedInViewState(type)) {
+			return ViewScopeStorageInViewState.getBean(type, manager);
+		}
+
 		return viewScopeManager.getBean(type);
 	}
 
 	@Override
 	public <T> T get(Contextual<T> type, CreationalContext<T> context) {
 		T instance = get(type);
-		return (instance != null) ? instance : viewScopeManager.createBean(type, context);
+
+		if (instance != null) {
+			return instance;
+		}
+
+		if (isSavedInViewState(type)) {
+			return ViewScopeStorageInViewState.createBean(type, context);
+		}
+
+		return viewScopeManager.createBean(type, context);
 	}
 
 	// Helpers --------------------------------------------------------------------------------------------------------
@@ -105,6 +135,13 @@ public class ViewScopeContext implements Context {
 		return viewScopeManager != null;
 	}
 
+	/**
+	 * Returns whether the given contextual type should be saved in JSF view state.
+	 */
+	private boolean isSavedInViewState(Contextual<?> type) {
+		return !beanIdsSavedInViewState.isEmpty() && beanIdsSavedInViewState.contains(((PassivationCapable) type).getId());
+	}
+
 	/**
 	 * Throws {@link ContextNotActiveException} when {@link #isActive()} returns <code>false</code>.
 	 * @throws ContextNotActiveException
@@ -15,13 +15,18 @@
  */
 package org.omnifaces.cdi.viewscope;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.AfterBeanDiscovery;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.PassivationCapable;
 import javax.enterprise.inject.spi.ProcessManagedBean;
 
+import org.omnifaces.cdi.BeanStorage;
 import org.omnifaces.cdi.ViewScoped;
 
 /**
@@ -39,6 +44,7 @@ public class ViewScopeExtension implements Extension {
 	// Variables ------------------------------------------------------------------------------------------------------
 
 	private Bean<ViewScopeManager> bean;
+	private Set<String> beanIdsSavedInViewState = new HashSet<>();
 
 	// Actions --------------------------------------------------------------------------------------------------------
 
@@ -50,6 +56,26 @@ public class ViewScopeExtension implements Extension {
 		bean = event.getBean();
 	}
 
+	/**
+	 * Register view scoped beans in the {@link BeanStorage}, so that they get a fixed slot in it, and collect the IDs of
+	 * view scoped beans which should be saved in JSF view state.
+	 * @param event The process managed bean event.
+	 * @see ViewScoped#saveInViewState()
+	 */
+	protected void processViewScopedBeans(@Observes ProcessManagedBean<?> event) {
+		ViewScoped viewScoped = event.getAnnotated().getAnnotation(ViewScoped.class);
+
+		if (viewScoped == null) {
+			return;
+		}
+
+		BeanStorage.registerContextual(event.getBean());
+
+		if (viewScoped.saveInViewState()) {
+			beanIdsSavedInViewState.add(((PassivationCapable) event.getBean()).getId());
+		}
+	}
+
 	/**
 	 * Register a new view scope context, wrapping the given bean manager and view scope manager bean, in the current
 	 * CDI context.
@@ -57,7 +83,7 @@ public class ViewScopeExtension implements Extension {
 	 * @param manager The bean manager.
 	 */
 	protected void afterBeanDiscovery(@Observes AfterBeanDiscovery event, BeanManager manager) {
-		event.addContext(new ViewScopeContext(manager, bean));
+		event.addContext(new ViewScopeContext(manager, bean, beanIdsSavedInViewState));
 	}
 
 }
\ No newline at end of file
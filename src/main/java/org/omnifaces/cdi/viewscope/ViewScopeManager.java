@@ -15,13 +15,21 @@
  */
 package org.omnifaces.cdi.viewscope;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.omnifaces.util.Faces.getContext;
 import static org.omnifaces.util.Faces.getInitParameter;
 import static org.omnifaces.util.Faces.getViewAttribute;
 import static org.omnifaces.util.Faces.setViewAttribute;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -29,6 +37,8 @@ import javax.enterprise.context.SessionScoped;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
 import javax.inject.Inject;
 
 import org.omnifaces.application.ViewScopeEventListener;
@@ -41,6 +51,9 @@ import org.omnifaces.util.concurrentlinkedhashmap.EvictionListener;
  * Manage the view scoped beans by listening on view scope and session scope creation and destroy.
  * The view scope destroy is done externally with aid of {@link ViewScopeEventListener} which is registered in
  * <code>faces-config.xml</code>.
+ * <p>
+ * This class has a compact serialized form, which is relevant when the HTTP session is replicated: the active view
+ * scopes are written in LRU order with their UUID as two longs, and empty view scopes are skipped.
  *
  * @author Radu Creanga {@literal <rdcrng@gmail.com>}
  * @author Bauke Scholtz
@@ -68,23 +81,37 @@ public class ViewScopeManager implements Serializable {
 	/** Default value of maximum active view scopes in session. */
 	public static final int DEFAULT_MAX_ACTIVE_VIEW_SCOPES = 20; // Mojarra's default is 15 and MyFaces' default is 20.
 
+	/** OmniFaces specific context parameter name of maximum idle time in seconds of an active view scope. */
+	public static final String PARAM_NAME_MAX_IDLE_TIME =
+		"org.omnifaces.VIEW_SCOPE_MANAGER_MAX_IDLE_TIME";
+
+	/** Default value of maximum idle time in seconds of an active view scope; 0 means that there is no limit. */
+	public static final int DEFAULT_MAX_IDLE_TIME = 0;
+
 	// Private constants ----------------------------------------------------------------------------------------------
 
-	private static final long serialVersionUID = 42L;
+	private static final long serialVersionUID = 43L;
 	private static final String[] PARAM_NAMES_MAX_ACTIVE_VIEW_SCOPES = {
 		PARAM_NAME_MAX_ACTIVE_VIEW_SCOPES, PARAM_NAME_MOJARRA_NUMBER_OF_VIEWS, PARAM_NAME_MYFACES_NUMBER_OF_VIEWS
 	};
 	private static final int DEFAULT_BEANS_PER_VIEW_SCOPE = 3;
+	private static final String CONTEXT_ATTRIBUTE_BEAN_STORAGE = ViewScopeManager.class.getName() + ".BEAN_STORAGE";
 	private static final String ERROR_MAX_ACTIVE_VIEW_SCOPES = "The '%s' init param must be a number."
 		+ " Encountered an invalid value of '%s'.";
+	private static final String ERROR_MAX_IDLE_TIME = "The '%s' init param must be a number of seconds."
+		+ " Encountered an invalid value of '%s'.";
+	private static final int IDLE_CLEANUP_INTERVAL_DIVISOR = 10; // Cleanup at most 10 times per max idle time.
+	private static final int IDLE_CLEANUP_BATCH_SIZE = 10;
 
 	// Static variables -----------------------------------------------------------------------------------------------
 
 	private static Integer maxActiveViewScopes;
+	private static Long maxIdleTime;
 
 	// Variables ------------------------------------------------------------------------------------------------------
 
-	private ConcurrentMap<UUID, BeanStorage> activeViewScopes;
+	private transient ConcurrentLinkedHashMap<UUID, BeanStorage> activeViewScopes;
+	private transient volatile long lastIdleCleanupTime;
 
 	@Inject
 	private BeanManager manager;
@@ -97,10 +124,7 @@ public class ViewScopeManager implements Serializable {
 	 */
 	@PostConstruct
 	public void postConstructSession() {
-		activeViewScopes = new ConcurrentLinkedHashMap.Builder<UUID, BeanStorage>()
-			.maximumWeightedCapacity(getMaxActiveViewScopes())
-			.listener(new BeanStorageEvictionListener())
-			.build();
+		activeViewScopes = createActiveViewScopes(getMaxActiveViewScopes());
 	}
 
 	/**
@@ -111,7 +135,7 @@ public class ViewScopeManager implements Serializable {
 	 * @return The created CDI view scoped managed bean from the current JSF view scope.
 	 */
 	public <T> T createBean(Contextual<T> type, CreationalContext<T> context) {
-		return activeViewScopes.get(getBeanStorageId(true)).createBean(type, context);
+		return getBeanStorage(getContext()).createBean(type, context);
 	}
 
 	/**
@@ -121,7 +145,7 @@ public class ViewScopeManager implements Serializable {
 	 * @return The CDI view scoped managed bean from the current JSF view scope.
 	 */
 	public <T> T getBean(Contextual<T> type) {
-		return activeViewScopes.get(getBeanStorageId(true)).getBean(type, manager);
+		return getBeanStorage(getContext()).getBean(type, manager);
 	}
 
 	/**
@@ -129,7 +153,8 @@ public class ViewScopeManager implements Serializable {
 	 * current active view scope.
 	 */
 	public void preDestroyView() {
-		BeanStorage storage = activeViewScopes.remove(getBeanStorageId(false));
+		getContext().getAttributes().remove(CONTEXT_ATTRIBUTE_BEAN_STORAGE);
+		BeanStorage storage = activeViewScopes.remove(getBeanStorageId());
 
 		if (storage != null) {
 			storage.destroyBeans();
@@ -176,29 +201,173 @@ public class ViewScopeManager implements Serializable {
 		return maxActiveViewScopes;
 	}
 
+	/**
+	 * Returns the max idle time in milliseconds depending on available context param. This will be calculated lazily
+	 * once and re-returned everytime.
+	 */
+	private static long getMaxIdleTime() {
+		if (maxIdleTime != null) {
+			return maxIdleTime;
+		}
+
+		String value = getInitParameter(PARAM_NAME_MAX_IDLE_TIME);
+
+		try {
+			maxIdleTime = SECONDS.toMillis((value != null) ? Long.valueOf(value) : DEFAULT_MAX_IDLE_TIME);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				String.format(ERROR_MAX_IDLE_TIME, PARAM_NAME_MAX_IDLE_TIME, value), e);
+		}
+
+		return maxIdleTime;
+	}
+
+	/**
+	 * Create a new LRU map of active view scopes with given maximum weighted capacity.
+	 */
+	private static ConcurrentLinkedHashMap<UUID, BeanStorage> createActiveViewScopes(long maxActiveViewScopes) {
+		return new ConcurrentLinkedHashMap.Builder<UUID, BeanStorage>()
+			.maximumWeightedCapacity(maxActiveViewScopes)
+			.listener(new BeanStorageEvictionListener())
+			.build();
+	}
+
+	/**
+	 * Returns the CDI bean storage of the current JSF view scope. If none is found, then a new one will be auto-created.
+	 * As this is invoked on every access to a view scoped bean, the result is cached in the given faces context for the
+	 * current view root, so that it's resolved only once per request and view.
+	 */
+	private BeanStorage getBeanStorage(FacesContext context) {
+		UIViewRoot viewRoot = context.getViewRoot();
+		CachedBeanStorage cached = (CachedBeanStorage) context.getAttributes().get(CONTEXT_ATTRIBUTE_BEAN_STORAGE);
+
+		if (cached == null || cached.viewRoot != viewRoot) {
+			UUID id = (UUID) getViewAttribute(ViewScopeManager.class.getName());
+			BeanStorage storage = (id != null) ? activeViewScopes.get(id) : null;
+
+			if (storage == null) {
+				id = UUID.randomUUID();
+				storage = new BeanStorage(DEFAULT_BEANS_PER_VIEW_SCOPE);
+				activeViewScopes.put(id, storage);
+				setViewAttribute(ViewScopeManager.class.getName(), id);
+			}
+
+			storage.touch();
+			cached = new CachedBeanStorage(viewRoot, storage);
+			context.getAttributes().put(CONTEXT_ATTRIBUTE_BEAN_STORAGE, cached);
+			destroyIdleViewScopes();
+		}
+
+		return cached.storage;
+	}
+
+	/**
+	 * If a max idle time is configured, destroy all view scopes which are idle for longer than that. In order to keep
+	 * this cheap, this is performed at most once per tenth of the max idle time, and it walks the LRU map from the
+	 * least recently used view scope on until the first view scope which is not idle for too long. The LRU map is
+	 * walked in small batches, so that a sweep doesn't need to copy the whole LRU map.
+	 */
+	private void destroyIdleViewScopes() {
+		long maxIdleTime = getMaxIdleTime();
+
+		if (maxIdleTime <= 0) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+
+		if (now - lastIdleCleanupTime < maxIdleTime / IDLE_CLEANUP_INTERVAL_DIVISOR) {
+			return;
+		}
+
+		lastIdleCleanupTime = now;
+
+		Map<UUID, BeanStorage> leastRecentlyUsed;
+
+		do {
+			leastRecentlyUsed = activeViewScopes.ascendingMapWithLimit(IDLE_CLEANUP_BATCH_SIZE);
+
+			for (Entry<UUID, BeanStorage> entry : leastRecentlyUsed.entrySet()) {
+				BeanStorage storage = entry.getValue();
+
+				if (now - storage.getLastAccessedTime() <= maxIdleTime) {
+					return;
+				}
+
+				if (activeViewScopes.remove(entry.getKey(), storage)) {
+					storage.destroyBeans();
+				}
+			}
+		}
+		while (leastRecentlyUsed.size() == IDLE_CLEANUP_BATCH_SIZE);
+	}
+
 	/**
 	 * Returns the unique ID from the current JSF view scope which is to be associated with the CDI bean storage.
-	 * If none is found, then a new ID will be auto-created. If <code>create</code> is <code>true</code>, then a new
-	 * CDI bean storage will also be auto-created.
+	 * If none is found, then a new ID will be auto-created.
 	 */
-	private UUID getBeanStorageId(boolean create) {
+	private UUID getBeanStorageId() {
 		UUID id = (UUID) getViewAttribute(ViewScopeManager.class.getName());
 
 		if (id == null || activeViewScopes.get(id) == null) {
 			id = UUID.randomUUID();
+			setViewAttribute(ViewScopeManager.class.getName(), id);
+		}
+
+		return id;
+	}
 
-			if (create) {
-				activeViewScopes.put(id, new BeanStorage(DEFAULT_BEANS_PER_VIEW_SCOPE));
+	// Serialization --------------------------------------------------------------------------------------------------
+
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		output.defaultWriteObject();
+		output.writeLong(activeViewScopes.capacity());
+		List<Entry<UUID, BeanStorage>> entries = new ArrayList<>(activeViewScopes.size());
+
+		for (Entry<UUID, BeanStorage> entry : activeViewScopes.ascendingMap().entrySet()) { // From least to most recently used.
+			if (!entry.getValue().isEmpty()) {
+				entries.add(entry);
 			}
+		}
 
-			setViewAttribute(ViewScopeManager.class.getName(), id);
+		output.writeInt(entries.size());
+
+		for (Entry<UUID, BeanStorage> entry : entries) {
+			output.writeLong(entry.getKey().getMostSignificantBits());
+			output.writeLong(entry.getKey().getLeastSignificantBits());
+			output.writeObject(entry.getValue());
 		}
+	}
 
-		return id;
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		activeViewScopes = createActiveViewScopes(input.readLong());
+		int size = input.readInt();
+
+		for (int i = 0; i < size; i++) {
+			UUID id = new UUID(input.readLong(), input.readLong());
+			activeViewScopes.put(id, (BeanStorage) input.readObject());
+		}
 	}
 
 	// Nested classes -------------------------------------------------------------------------------------------------
 
+	/**
+	 * Holder of the CDI bean storage of a specific view root during the current request.
+	 */
+	private static final class CachedBeanStorage {
+
+		private final UIViewRoot viewRoot;
+		private final BeanStorage storage;
+
+		public CachedBeanStorage(UIViewRoot viewRoot, BeanStorage storage) {
+			this.viewRoot = viewRoot;
+			this.storage = storage;
+		}
+
+	}
+
 	/**
 	 * Listener for {@link ConcurrentLinkedHashMap} which will be invoked when an entry is evicted. It will in turn
 	 * invoke {@link BeanStorage#destroyBeans()}.
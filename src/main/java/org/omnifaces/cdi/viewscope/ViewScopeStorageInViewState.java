@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.cdi.viewscope;
+
+import static org.omnifaces.util.FacesLocal.getViewAttribute;
+import static org.omnifaces.util.FacesLocal.removeViewAttribute;
+import static org.omnifaces.util.FacesLocal.setViewAttribute;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.faces.context.FacesContext;
+
+import org.omnifaces.cdi.BeanStorage;
+import org.omnifaces.cdi.ViewScoped;
+
+/**
+ * Manage the view scoped beans annotated with <code>&#64;ViewScoped(saveInViewState=true)</code> by storing them
+ * directly in the JSF view map, so that they end up in the JSF view state instead of in the HTTP session. In combination
+ * with client side state saving this means that there is no server side state at all for those beans: JSF will
+ * serialize, compress and encrypt/sign the view state including the beans into the <code>javax.faces.ViewState</code>
+ * hidden field. This allows horizontal scaling without sticky sessions.
+ *
+ * @author Bauke Scholtz
+ * @see ViewScoped#saveInViewState()
+ * @see ViewScopeContext
+ * @since 2.1
+ */
+public final class ViewScopeStorageInViewState {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final String VIEW_ATTRIBUTE_BEAN_STORAGE = ViewScopeStorageInViewState.class.getName();
+	private static final int DEFAULT_BEANS_PER_VIEW_SCOPE = 3;
+
+	private static final String ERROR_SERVER_STATE_SAVING = "@ViewScoped(saveInViewState=true) requires client side"
+		+ " state saving. Set the 'javax.faces.STATE_SAVING_METHOD' context parameter to 'client'.";
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private ViewScopeStorageInViewState() {
+		// Hide constructor.
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Create and returns the CDI view scoped managed bean in the current JSF view state.
+	 * @param <T> The expected return type.
+	 * @param type The contextual type of the CDI managed bean.
+	 * @param context The CDI context to create the CDI managed bean in.
+	 * @return The created CDI view scoped managed bean in the current JSF view state.
+	 * @throws IllegalStateException When JSF is not configured to use client side state saving.
+	 */
+	public static <T> T createBean(Contextual<T> type, CreationalContext<T> context) {
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+
+		if (!facesContext.getApplication().getStateManager().isSavingStateInClient(facesContext)) {
+			throw new IllegalStateException(ERROR_SERVER_STATE_SAVING);
+		}
+
+		BeanStorage storage = getViewAttribute(facesContext, VIEW_ATTRIBUTE_BEAN_STORAGE);
+
+		if (storage == null) {
+			storage = new BeanStorage(DEFAULT_BEANS_PER_VIEW_SCOPE);
+			setViewAttribute(facesContext, VIEW_ATTRIBUTE_BEAN_STORAGE, storage);
+		}
+
+		return storage.createBean(type, context);
+	}
+
+	/**
+	 * Returns the CDI view scoped managed bean from the current JSF view state, or <code>null</code> if there is none.
+	 * @param <T> The expected return type.
+	 * @param type The contextual type of the CDI managed bean.
+	 * @param manager The bean manager used to create the creational context, if necessary.
+	 * @return The CDI view scoped managed bean from the current JSF view state.
+	 */
+	public static <T> T getBean(Contextual<T> type, BeanManager manager) {
+		BeanStorage storage = getViewAttribute(FacesContext.getCurrentInstance(), VIEW_ATTRIBUTE_BEAN_STORAGE);
+		return (storage != null) ? storage.getBean(type, manager) : null;
+	}
+
+	/**
+	 * This method is invoked during view destroy by {@link org.omnifaces.application.ViewScopeEventListener}, in that
+	 * case destroy all beans in the current JSF view state, if any.
+	 */
+	public static void preDestroyView() {
+		BeanStorage storage = removeViewAttribute(FacesContext.getCurrentInstance(), VIEW_ATTRIBUTE_BEAN_STORAGE);
+
+		if (storage != null) {
+			storage.destroyBeans();
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads XML configuration files such as <code>web.xml</code> and <code>faces-config.xml</code> in a single streaming
+ * (StAX) pass per file, without building a DOM. Every element below the document root element is reported to a
+ * {@link Handler} by its path relative to the document root element, e.g. <code>error-page/location</code>, so that
+ * the handler can pick only the elements it needs. When there are multiple files, e.g. a <code>web.xml</code> and
+ * several <code>web-fragment.xml</code> files from JARs, then each is read into its own handler, so that the results
+ * can afterwards be merged in the order of the files. The files are read sequentially: they are small and read only
+ * once during startup, so a streaming pass is cheap enough that a thread pool would cost more than it saves.
+ * <p>
+ * Like {@link org.omnifaces.util.Xml#createDocumentBuilder()}, the reader is as lenient as possible: it doesn't
+ * validate, it isn't namespace aware and it doesn't process any DTD.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see WebXml
+ * @see FacesConfigXml
+ */
+final class ConfigXmlReader {
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private ConfigXmlReader() {
+		// Hide constructor.
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Read each of the given URLs into the handler at the same index. A <code>null</code> URL is skipped.
+	 * @param urls The URLs representing XML documents.
+	 * @param handlers The handlers, one for each URL.
+	 * @throws IOException When an I/O error occurs.
+	 * @throws XMLStreamException When a XML parsing error occurs.
+	 */
+	public static void read(List<URL> urls, List<? extends Handler> handlers) throws IOException, XMLStreamException {
+		XMLInputFactory factory = createXMLInputFactory();
+
+		for (int i = 0; i < urls.size(); i++) {
+			read(factory, urls.get(i), handlers.get(i));
+		}
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private static XMLInputFactory createXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+
+	private static void read(XMLInputFactory factory, URL url, Handler handler) throws IOException, XMLStreamException {
+		if (url == null) {
+			return;
+		}
+
+		URLConnection connection = url.openConnection();
+		connection.setUseCaches(false);
+
+		try (InputStream input = connection.getInputStream()) {
+			XMLStreamReader reader = factory.createXMLStreamReader(input);
+
+			try {
+				read(reader, handler);
+			}
+			finally {
+				reader.close();
+			}
+		}
+	}
+
+	private static void read(XMLStreamReader reader, Handler handler) throws XMLStreamException {
+		StringBuilder path = new StringBuilder();
+		StringBuilder text = new StringBuilder();
+		int[] pathLengths = new int[8];
+		int depth = 0;
+
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (depth > 0) { // Skip document root element.
+						if (depth == pathLengths.length) {
+							pathLengths = Arrays.copyOf(pathLengths, depth * 2);
+						}
+
+						pathLengths[depth] = path.length();
+						path.append((depth > 1) ? "/" : "").append(reader.getLocalName());
+						handler.startElement(path.toString());
+					}
+
+					depth++;
+					text.setLength(0);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+					text.append(reader.getText());
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+
+					if (depth > 0) {
+						handler.endElement(path.toString(), text.toString().trim());
+						path.setLength(pathLengths[depth]);
+					}
+
+					text.setLength(0);
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * Handles the elements of a single XML document.
+	 */
+	abstract static class Handler {
+
+		/**
+		 * Invoked when an element is started.
+		 * @param path The path of the element relative to the document root element.
+		 */
+		protected void startElement(String path) {
+			// NOOP.
+		}
+
+		/**
+		 * Invoked when an element is ended.
+		 * @param path The path of the element relative to the document root element.
+		 * @param text The trimmed text of the element. This is only meaningful for elements without child elements.
+		 */
+		protected abstract void endElement(String path, String text);
+
+	}
+
+}
@@ -14,8 +14,6 @@ package org.omnifaces.config;
 
 import static org.omnifaces.util.Faces.getServletContext;
 import static org.omnifaces.util.Faces.hasContext;
-import static org.omnifaces.util.Xml.createDocument;
-import static org.omnifaces.util.Xml.getNodeList;
 
 import java.io.IOException;
 import java.net.URL;
@@ -33,15 +31,7 @@ import javax.faces.webapp.FacesServlet;
 import javax.servlet.Filter;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextListener;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * <p>
@@ -85,12 +75,12 @@ public enum FacesConfigXml {
 		"/WEB-INF/faces-config.xml";
 	private static final String LIB_FACES_CONFIG_XML =
 		"META-INF/faces-config.xml";
-	private static final String XPATH_RESOURCE_BUNDLE =
+	private static final String PATH_RESOURCE_BUNDLE =
 		"application/resource-bundle";
-	private static final String XPATH_VAR =
-		"var";
-	private static final String XPATH_BASE_NAME =
-		"base-name";
+	private static final String PATH_RESOURCE_BUNDLE_VAR =
+		"application/resource-bundle/var";
+	private static final String PATH_RESOURCE_BUNDLE_BASE_NAME =
+		"application/resource-bundle/base-name";
 	private static final String ERROR_NOT_INITIALIZED =
 		"FacesConfigXml is not initialized yet. Please use #init(ServletContext) method to manually initialize it.";
 	private static final String LOG_INITIALIZATION_ERROR =
@@ -120,9 +110,8 @@ public enum FacesConfigXml {
 	public FacesConfigXml init(ServletContext servletContext) {
 		if (servletContext != null && !initialized.getAndSet(true)) {
 			try {
-				Element facesConfigXml = loadFacesConfigXml(servletContext).getDocumentElement();
-				XPath xpath = XPathFactory.newInstance().newXPath();
-				resourceBundles = parseResourceBundles(facesConfigXml, xpath);
+				List<FacesConfigXmlHandler> facesConfigXml = loadFacesConfigXml(servletContext);
+				resourceBundles = parseResourceBundles(facesConfigXml);
 			}
 			catch (Exception e) {
 				initialized.set(false);
@@ -160,36 +149,73 @@ public enum FacesConfigXml {
 	// Helpers --------------------------------------------------------------------------------------------------------
 
 	/**
-	 * Load, merge and return all <code>faces-config.xml</code> files found in the classpath
-	 * into a single {@link Document}.
+	 * Read all <code>faces-config.xml</code> files found in the classpath, each into its own
+	 * {@link FacesConfigXmlHandler}, in that order.
 	 */
-	private static Document loadFacesConfigXml(ServletContext context) throws IOException, SAXException {
+	private static List<FacesConfigXmlHandler> loadFacesConfigXml(ServletContext context) throws IOException, XMLStreamException {
 		List<URL> facesConfigURLs = new ArrayList<>();
 		facesConfigURLs.add(context.getResource(APP_FACES_CONFIG_XML));
 		facesConfigURLs.addAll(Collections.list(Thread.currentThread().getContextClassLoader().getResources(LIB_FACES_CONFIG_XML)));
-		return createDocument(facesConfigURLs);
+		List<FacesConfigXmlHandler> facesConfigXml = new ArrayList<>(facesConfigURLs.size());
+
+		for (int i = 0; i < facesConfigURLs.size(); i++) {
+			facesConfigXml.add(new FacesConfigXmlHandler());
+		}
+
+		ConfigXmlReader.read(facesConfigURLs, facesConfigXml);
+		return facesConfigXml;
 	}
 
 	/**
-	 * Create and return a mapping of all resource bundle base names by var found in the given document.
-	 * @throws XPathExpressionException
+	 * Create and return a mapping of all resource bundle base names by var found in the given documents.
 	 */
-	private static Map<String, String> parseResourceBundles(Element facesConfigXml, XPath xpath) throws XPathExpressionException {
+	private static Map<String, String> parseResourceBundles(List<FacesConfigXmlHandler> facesConfigXml) {
 		Map<String, String> resourceBundles = new LinkedHashMap<>();
-		NodeList resourceBundleNodes = getNodeList(facesConfigXml, xpath, XPATH_RESOURCE_BUNDLE);
-
-		for (int i = 0; i < resourceBundleNodes.getLength(); i++) {
-			Node node = resourceBundleNodes.item(i);
 
-			String var = xpath.compile(XPATH_VAR).evaluate(node).trim();
-			String baseName = xpath.compile(XPATH_BASE_NAME).evaluate(node).trim();
+		for (FacesConfigXmlHandler document : facesConfigXml) {
+			for (String[] resourceBundle : document.resourceBundles) {
+				String var = resourceBundle[0];
+				String baseName = resourceBundle[1];
 
-			if (!resourceBundles.containsKey(var)) {
-				resourceBundles.put(var, baseName);
+				if (!resourceBundles.containsKey(var)) {
+					resourceBundles.put(var, baseName);
+				}
 			}
 		}
 
 		return Collections.unmodifiableMap(resourceBundles);
 	}
 
-}
\ No newline at end of file
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * Collects the elements of a single <code>faces-config.xml</code> which are needed by {@link FacesConfigXml}, in
+	 * the declared order.
+	 */
+	private static final class FacesConfigXmlHandler extends ConfigXmlReader.Handler {
+
+		/** The resource bundles as pairs of var and base name. */
+		private final List<String[]> resourceBundles = new ArrayList<>();
+		private String[] resourceBundle;
+
+		@Override
+		protected void startElement(String path) {
+			if (PATH_RESOURCE_BUNDLE.equals(path)) {
+				resourceBundle = new String[] { "", "" };
+				resourceBundles.add(resourceBundle);
+			}
+		}
+
+		@Override
+		protected void endElement(String path, String text) {
+			if (PATH_RESOURCE_BUNDLE_VAR.equals(path)) {
+				resourceBundle[0] = text;
+			}
+			else if (PATH_RESOURCE_BUNDLE_BASE_NAME.equals(path)) {
+				resourceBundle[1] = text;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * The security constraint URL patterns of {@link WebXml}, compiled once into two character tries: one with the exact
+ * and prefix patterns walked from the start of the URL, and one with the suffix patterns walked from the end of the
+ * URL. Finding the roles of a given URL therefore takes time proportional to the length of the URL, regardless of the
+ * amount of security constraints, and does not allocate any objects.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see WebXml#isAccessAllowed(String, String)
+ */
+final class SecurityConstraintMatcher {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final String PREFIX_PATTERN_SUFFIX = "/*";
+	private static final String SUFFIX_PATTERN_PREFIX = "*.";
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final Node paths = new Node();
+	private final Node suffixes = new Node();
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Compile the given security constraints.
+	 * @param securityConstraints The security constraint URL patterns and the associated roles in the declared order.
+	 */
+	public SecurityConstraintMatcher(Map<String, Set<String>> securityConstraints) {
+		for (Entry<String, Set<String>> entry : securityConstraints.entrySet()) {
+			String urlPattern = entry.getKey();
+			Set<String> roles = entry.getValue();
+
+			if (urlPattern.startsWith(SUFFIX_PATTERN_PREFIX)) {
+				Node node = suffixes;
+
+				for (int i = urlPattern.length() - 1; i > 0; i--) {
+					node = node.add(urlPattern.charAt(i));
+				}
+
+				node.setSuffix(roles);
+			}
+			else if (urlPattern.endsWith(PREFIX_PATTERN_SUFFIX)) {
+				Node node = paths.add(urlPattern, urlPattern.length() - PREFIX_PATTERN_SUFFIX.length());
+				node.setExact(roles);
+				node.setPrefix(roles);
+			}
+			else {
+				paths.add(urlPattern, urlPattern.length()).setExact(roles);
+			}
+		}
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the roles of the given URL as per Servlet 3.0 specification 12.1: first an exact match, then the longest
+	 * prefix match, then the longest suffix match. A match whose roles are <code>null</code> (i.e. no auth constraint)
+	 * falls through to the next kind of match. A prefix pattern only matches at a path segment boundary, so that e.g.
+	 * <code>/foo/*</code> matches <code>/foo</code> and <code>/foo/bar</code>, but not <code>/foobar</code>.
+	 * @param url The context-relative URL.
+	 * @param length The length of the URL to consider, so that a trailing slash can be ignored without a substring.
+	 * @return The roles of the given URL, or <code>null</code> if there are none.
+	 */
+	public Set<String> findRoles(String url, int length) {
+		Node node = paths;
+		Node prefixMatch = paths.hasPrefix ? paths : null;
+
+		for (int i = 0; node != null && i < length; i++) {
+			node = node.get(url.charAt(i));
+
+			if (node != null && node.hasPrefix && (i == length - 1 || url.charAt(i + 1) == '/')) {
+				prefixMatch = node;
+			}
+		}
+
+		if (node != null && node.exact != null) {
+			return node.exact;
+		}
+
+		if (prefixMatch != null && prefixMatch.prefix != null) {
+			return prefixMatch.prefix;
+		}
+
+		return findSuffixRoles(url, length);
+	}
+
+	private Set<String> findSuffixRoles(String url, int length) {
+		Node node = suffixes;
+		Node suffixMatch = null;
+
+		for (int i = length - 1; node != null && i >= 0; i--) {
+			node = node.get(url.charAt(i));
+
+			if (node != null && node.hasSuffix) {
+				suffixMatch = node;
+			}
+		}
+
+		return (suffixMatch != null) ? suffixMatch.suffix : null;
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * A single trie node. When a URL pattern occurs multiple times, the first declared one wins.
+	 */
+	private static final class Node {
+
+		private char[] characters = new char[0];
+		private Node[] children = new Node[0];
+		private boolean hasExact;
+		private boolean hasPrefix;
+		private boolean hasSuffix;
+		private Set<String> exact;
+		private Set<String> prefix;
+		private Set<String> suffix;
+
+		public Node get(char character) {
+			for (int i = 0; i < characters.length; i++) {
+				if (characters[i] == character) {
+					return children[i];
+				}
+			}
+
+			return null;
+		}
+
+		public Node add(char character) {
+			Node child = get(character);
+
+			if (child == null) {
+				child = new Node();
+				characters = Arrays.copyOf(characters, characters.length + 1);
+				characters[characters.length - 1] = character;
+				children = Arrays.copyOf(children, children.length + 1);
+				children[children.length - 1] = child;
+			}
+
+			return child;
+		}
+
+		public Node add(String path, int length) {
+			Node node = this;
+
+			for (int i = 0; i < length; i++) {
+				node = node.add(path.charAt(i));
+			}
+
+			return node;
+		}
+
+		public void setExact(Set<String> roles) {
+			if (!hasExact) {
+				hasExact = true;
+				exact = roles;
+			}
+		}
+
+		public void setPrefix(Set<String> roles) {
+			if (!hasPrefix) {
+				hasPrefix = true;
+				prefix = roles;
+			}
+		}
+
+		public void setSuffix(Set<String> roles) {
+			if (!hasSuffix) {
+				hasSuffix = true;
+				suffix = roles;
+			}
+		}
+
+	}
+
+}
@@ -16,9 +16,6 @@ import static org.omnifaces.util.Faces.getServletContext;
 import static org.omnifaces.util.Faces.hasContext;
 import static org.omnifaces.util.Utils.isEmpty;
 import static org.omnifaces.util.Utils.isNumber;
-import static org.omnifaces.util.Xml.createDocument;
-import static org.omnifaces.util.Xml.getNodeList;
-import static org.omnifaces.util.Xml.getTextContent;
 
 import java.io.IOException;
 import java.net.URL;
@@ -39,15 +36,7 @@ import javax.faces.webapp.FacesServlet;
 import javax.servlet.Filter;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextListener;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * <p>
@@ -109,31 +98,38 @@ public enum WebXml {
 	private static final String WEB_XML = "/WEB-INF/web.xml";
 	private static final String WEB_FRAGMENT_XML = "META-INF/web-fragment.xml";
 
-	private static final String XPATH_WELCOME_FILE =
+	private static final String PATH_WELCOME_FILE =
 		"welcome-file-list/welcome-file";
-	private static final String XPATH_EXCEPTION_TYPE =
+	private static final String PATH_ERROR_PAGE =
+		"error-page";
+	private static final String PATH_ERROR_PAGE_ERROR_CODE =
+		"error-page/error-code";
+	private static final String PATH_ERROR_PAGE_EXCEPTION_TYPE =
 		"error-page/exception-type";
-	private static final String XPATH_LOCATION =
-		"location";
-	private static final String XPATH_ERROR_PAGE_500_LOCATION =
-		"error-page[error-code=500]/location";
-	private static final String XPATH_ERROR_PAGE_DEFAULT_LOCATION =
-		"error-page[not(error-code) and not(exception-type)]/location";
-	private static final String XPATH_FORM_LOGIN_PAGE =
-		"login-config[auth-method='FORM']/form-login-config/form-login-page";
-	private static final String XPATH_FORM_ERROR_PAGE =
-		"login-config[auth-method='FORM']/form-login-config/form-error-page";
-	private static final String XPATH_SECURITY_CONSTRAINT =
+	private static final String PATH_ERROR_PAGE_LOCATION =
+		"error-page/location";
+	private static final String PATH_LOGIN_CONFIG =
+		"login-config";
+	private static final String PATH_AUTH_METHOD =
+		"login-config/auth-method";
+	private static final String PATH_FORM_LOGIN_PAGE =
+		"login-config/form-login-config/form-login-page";
+	private static final String PATH_FORM_ERROR_PAGE =
+		"login-config/form-login-config/form-error-page";
+	private static final String PATH_SECURITY_CONSTRAINT =
 		"security-constraint";
-	private static final String XPATH_WEB_RESOURCE_URL_PATTERN =
-		"web-resource-collection/url-pattern";
-	private static final String XPATH_AUTH_CONSTRAINT =
-		"auth-constraint";
-	private static final String XPATH_AUTH_CONSTRAINT_ROLE_NAME =
-		"auth-constraint/role-name";
-	private static final String XPATH_SESSION_TIMEOUT =
+	private static final String PATH_AUTH_CONSTRAINT =
+		"security-constraint/auth-constraint";
+	private static final String PATH_AUTH_CONSTRAINT_ROLE_NAME =
+		"security-constraint/auth-constraint/role-name";
+	private static final String PATH_WEB_RESOURCE_URL_PATTERN =
+		"security-constraint/web-resource-collection/url-pattern";
+	private static final String PATH_SESSION_TIMEOUT =
 		"session-config/session-timeout";
 
+	private static final String AUTH_METHOD_FORM = "FORM";
+	private static final String ERROR_CODE_500 = "500";
+
 	private static final String ERROR_NOT_INITIALIZED =
 		"WebXml is not initialized yet. Please use #init(ServletContext) method to manually initialize it.";
 	private static final String ERROR_URL_MUST_START_WITH_SLASH =
@@ -146,9 +142,11 @@ public enum WebXml {
 	private final AtomicBoolean initialized = new AtomicBoolean();
 	private List<String> welcomeFiles;
 	private Map<Class<Throwable>, String> errorPageLocations;
+	private ClassValue<String> errorPageLocationsByClass;
 	private String formLoginPage;
 	private String formErrorPage;
 	private Map<String, Set<String>> securityConstraints;
+	private SecurityConstraintMatcher securityConstraintMatcher;
 	private int sessionTimeout;
 
 	// Init -----------------------------------------------------------------------------------------------------------
@@ -170,14 +168,15 @@ public enum WebXml {
 	public WebXml init(ServletContext servletContext) {
 		if (servletContext != null && !initialized.getAndSet(true)) {
 			try {
-				Element webXml = loadWebXml(servletContext).getDocumentElement();
-				XPath xpath = XPathFactory.newInstance().newXPath();
-				welcomeFiles = parseWelcomeFiles(webXml, xpath);
-				errorPageLocations = parseErrorPageLocations(webXml, xpath);
-				formLoginPage = parseFormLoginPage(webXml, xpath);
-				formErrorPage = parseFormErrorPage(webXml, xpath);
-				securityConstraints = parseSecurityConstraints(webXml, xpath);
-				sessionTimeout = parseSessionTimeout(webXml, xpath);
+				List<WebXmlHandler> webXml = loadWebXml(servletContext);
+				welcomeFiles = parseWelcomeFiles(webXml);
+				errorPageLocations = parseErrorPageLocations(webXml);
+				errorPageLocationsByClass = new ErrorPageLocationsByClass(errorPageLocations);
+				formLoginPage = parseFormLoginPage(webXml);
+				formErrorPage = parseFormErrorPage(webXml);
+				securityConstraints = parseSecurityConstraints(webXml);
+				securityConstraintMatcher = new SecurityConstraintMatcher(securityConstraints);
+				sessionTimeout = parseSessionTimeout(webXml);
 			}
 			catch (Exception e) {
 				initialized.set(false);
@@ -206,25 +205,12 @@ public enum WebXml {
 	 */
 	public String findErrorPageLocation(Throwable exception) {
 		checkInitialized();
-
-		for (Entry<Class<Throwable>, String> entry : errorPageLocations.entrySet()) {
-			if (entry.getKey() == exception.getClass()) {
-				return entry.getValue();
-			}
-		}
-
-		for (Entry<Class<Throwable>, String> entry : errorPageLocations.entrySet()) {
-			if (entry.getKey() != null && entry.getKey().isInstance(exception)) {
-				return entry.getValue();
-			}
-		}
-
-		return errorPageLocations.get(null);
+		return errorPageLocationsByClass.get(exception.getClass());
 	}
 
 	/**
 	 * Returns <code>true</code> if access to the given URL is allowed for the given role. URL patterns are matched as
-	 * per Servlet 3.0 specification 12.1:
+	 * per Servlet 3.0 specification 12.1, using the URL patterns compiled during initialization:
 	 * <ul>
 	 *   <li>Make a first pass through all URL patterns. If an exact match is found, then check the role on it.
 	 *   <li>Else make a recursive pass through all prefix URL patterns, stepping down the URL one directory at a time,
@@ -247,76 +233,13 @@ public enum WebXml {
 			throw new IllegalArgumentException(String.format(ERROR_URL_MUST_START_WITH_SLASH, url));
 		}
 
-		String uri = url;
-
-		if (url.length() > 1 && url.charAt(url.length() - 1) == '/') {
-			uri = url.substring(0, url.length() - 1); // Trim trailing slash.
-		}
-
-		Set<String> roles = findExactMatchRoles(uri);
-
-		if (roles == null) {
-			roles = findPrefixMatchRoles(uri);
-		}
-
-		if (roles == null) {
-			roles = findSuffixMatchRoles(uri);
-		}
-
-		return isRoleMatch(roles, role);
-	}
-
-	private Set<String> findExactMatchRoles(String url) {
-		for (Entry<String, Set<String>> entry : securityConstraints.entrySet()) {
-			if (isExactMatch(entry.getKey(), url)) {
-				return entry.getValue();
-			}
-		}
-
-		return null;
-	}
-
-	private Set<String> findPrefixMatchRoles(String url) {
-		for (String path = url, urlMatch = ""; !path.isEmpty(); path = path.substring(0, path.lastIndexOf('/'))) {
-			Set<String> roles = null;
-
-			for (Entry<String, Set<String>> entry : securityConstraints.entrySet()) {
-				if (urlMatch.length() < entry.getKey().length() && isPrefixMatch(entry.getKey(), path)) {
-					urlMatch = entry.getKey();
-					roles = entry.getValue();
-				}
-			}
-
-			if (roles != null) {
-				return roles;
-			}
-		}
-
-		return null;
-	}
+		int length = url.length();
 
-	private Set<String> findSuffixMatchRoles(String url) {
-		if (url.contains(".")) {
-			for (Entry<String, Set<String>> entry : securityConstraints.entrySet()) {
-				if (isSuffixMatch(url, entry.getKey())) {
-					return entry.getValue();
-				}
-			}
+		if (length > 1 && url.charAt(length - 1) == '/') {
+			length--; // Ignore trailing slash.
 		}
 
-		return null;
-	}
-
-	private static boolean isExactMatch(String urlPattern, String url) {
-		return url.equals(urlPattern.endsWith("/*") ? urlPattern.substring(0, urlPattern.length() - 2) : urlPattern);
-	}
-
-	private static boolean isPrefixMatch(String urlPattern, String url) {
-		return urlPattern.endsWith("/*") ? url.startsWith(urlPattern.substring(0, urlPattern.length() - 2)) : false;
-	}
-
-	private static boolean isSuffixMatch(String urlPattern, String url) {
-		return urlPattern.startsWith("*.") ? url.endsWith(urlPattern.substring(1)) : false;
+		return isRoleMatch(securityConstraintMatcher.findRoles(url, length), role);
 	}
 
 	private static boolean isRoleMatch(Set<String> roles, String role) {
@@ -402,55 +325,63 @@ public enum WebXml {
 	// Helpers --------------------------------------------------------------------------------------------------------
 
 	/**
-	 * Load, merge and return all <code>web.xml</code> and <code>web-fragment.xml</code> files found in the classpath
-	 * into a single {@link Document}.
+	 * Read all <code>web.xml</code> and <code>web-fragment.xml</code> files found in the classpath, each into its own
+	 * {@link WebXmlHandler}, in that order.
 	 */
-	private static Document loadWebXml(ServletContext context) throws IOException, SAXException {
+	private static List<WebXmlHandler> loadWebXml(ServletContext context) throws IOException, XMLStreamException {
 		List<URL> webXmlURLs = new ArrayList<>();
 		webXmlURLs.add(context.getResource(WEB_XML));
 		webXmlURLs.addAll(Collections.list(Thread.currentThread().getContextClassLoader().getResources(WEB_FRAGMENT_XML)));
-		return createDocument(webXmlURLs);
+		List<WebXmlHandler> webXml = new ArrayList<>(webXmlURLs.size());
+
+		for (int i = 0; i < webXmlURLs.size(); i++) {
+			webXml.add(new WebXmlHandler());
+		}
+
+		ConfigXmlReader.read(webXmlURLs, webXml);
+		return webXml;
 	}
 
 	/**
 	 * Create and return a list of all welcome files.
 	 */
-	private static List<String> parseWelcomeFiles(Element webXml, XPath xpath) throws XPathExpressionException {
-		NodeList welcomeFileList = getNodeList(webXml, xpath, XPATH_WELCOME_FILE);
-		List<String> welcomeFiles = new ArrayList<>(welcomeFileList.getLength());
+	private static List<String> parseWelcomeFiles(List<WebXmlHandler> webXml) {
+		List<String> welcomeFiles = new ArrayList<>();
 
-		for (int i = 0; i < welcomeFileList.getLength(); i++) {
-			welcomeFiles.add(getTextContent(welcomeFileList.item(i)));
+		for (WebXmlHandler document : webXml) {
+			welcomeFiles.addAll(document.welcomeFiles);
 		}
 
 		return Collections.unmodifiableList(welcomeFiles);
 	}
 
 	/**
-	 * Create and return a mapping of all error page locations by exception type found in the given document.
+	 * Create and return a mapping of all error page locations by exception type found in the given documents.
 	 * @throws ClassNotFoundException
 	 */
 	@SuppressWarnings("unchecked") // For the cast on Class<Throwable>.
-	private static Map<Class<Throwable>, String> parseErrorPageLocations(Element webXml, XPath xpath) throws XPathExpressionException, ClassNotFoundException {
+	private static Map<Class<Throwable>, String> parseErrorPageLocations(List<WebXmlHandler> webXml) throws ClassNotFoundException {
 		Map<Class<Throwable>, String> errorPageLocations = new LinkedHashMap<>();
-		NodeList exceptionTypes = getNodeList(webXml, xpath, XPATH_EXCEPTION_TYPE);
 
-		for (int i = 0; i < exceptionTypes.getLength(); i++) {
-			Node node = exceptionTypes.item(i);
-			Class<Throwable> exceptionClass = (Class<Throwable>) Class.forName(getTextContent(node));
-			String exceptionLocation = xpath.compile(XPATH_LOCATION).evaluate(node.getParentNode()).trim();
-			Class<Throwable> key = (exceptionClass == Throwable.class) ? null : exceptionClass;
+		for (WebXmlHandler document : webXml) {
+			for (ErrorPage errorPage : document.errorPages) {
+				for (String exceptionType : errorPage.exceptionTypes) {
+					Class<Throwable> exceptionClass = (Class<Throwable>) Class.forName(exceptionType);
+					String exceptionLocation = (errorPage.location != null) ? errorPage.location : "";
+					Class<Throwable> key = (exceptionClass == Throwable.class) ? null : exceptionClass;
 
-			if (!errorPageLocations.containsKey(key)) {
-				errorPageLocations.put(key, exceptionLocation);
+					if (!errorPageLocations.containsKey(key)) {
+						errorPageLocations.put(key, exceptionLocation);
+					}
+				}
 			}
 		}
 
 		if (!errorPageLocations.containsKey(null)) {
-			String defaultLocation = xpath.compile(XPATH_ERROR_PAGE_500_LOCATION).evaluate(webXml).trim();
+			String defaultLocation = findErrorPageLocation(webXml, true);
 
 			if (isEmpty(defaultLocation)) {
-				defaultLocation = xpath.compile(XPATH_ERROR_PAGE_DEFAULT_LOCATION).evaluate(webXml).trim();
+				defaultLocation = findErrorPageLocation(webXml, false);
 			}
 
 			if (!isEmpty(defaultLocation)) {
@@ -461,62 +392,226 @@ public enum WebXml {
 		return Collections.unmodifiableMap(errorPageLocations);
 	}
 
+	/**
+	 * Return the location of the first error page for HTTP 500, or else of the first error page without error code
+	 * and exception type.
+	 */
+	private static String findErrorPageLocation(List<WebXmlHandler> webXml, boolean errorCode500) {
+		for (WebXmlHandler document : webXml) {
+			for (ErrorPage errorPage : document.errorPages) {
+				boolean match = errorCode500
+					? ERROR_CODE_500.equals(errorPage.errorCode)
+					: (errorPage.errorCode == null && errorPage.exceptionTypes.isEmpty());
+
+				if (match && errorPage.location != null) {
+					return errorPage.location;
+				}
+			}
+		}
+
+		return null;
+	}
+
 	/**
 	 * Return the location of the FORM authentication login page.
 	 */
-	private static String parseFormLoginPage(Element webXml, XPath xpath) throws XPathExpressionException {
-		String formLoginPage = xpath.compile(XPATH_FORM_LOGIN_PAGE).evaluate(webXml).trim();
-		return isEmpty(formLoginPage) ? null : formLoginPage;
+	private static String parseFormLoginPage(List<WebXmlHandler> webXml) {
+		for (WebXmlHandler document : webXml) {
+			if (document.formLoginPage != null) {
+				return isEmpty(document.formLoginPage) ? null : document.formLoginPage;
+			}
+		}
+
+		return null;
 	}
 
 	/**
 	 * Return the location of the FORM authentication error page.
 	 */
-	private static String parseFormErrorPage(Element webXml, XPath xpath) throws XPathExpressionException {
-		String formErrorPage = xpath.compile(XPATH_FORM_ERROR_PAGE).evaluate(webXml).trim();
-		return isEmpty(formErrorPage) ? null : formErrorPage;
+	private static String parseFormErrorPage(List<WebXmlHandler> webXml) {
+		for (WebXmlHandler document : webXml) {
+			if (document.formErrorPage != null) {
+				return isEmpty(document.formErrorPage) ? null : document.formErrorPage;
+			}
+		}
+
+		return null;
 	}
 
 	/**
 	 * Create and return a mapping of all security constraint URL patterns and the associated roles.
 	 */
-	private static Map<String, Set<String>> parseSecurityConstraints(Element webXml, XPath xpath) throws XPathExpressionException {
+	private static Map<String, Set<String>> parseSecurityConstraints(List<WebXmlHandler> webXml) {
 		Map<String, Set<String>> securityConstraints = new LinkedHashMap<>();
-		NodeList constraints = getNodeList(webXml, xpath, XPATH_SECURITY_CONSTRAINT);
 
-		for (int i = 0; i < constraints.getLength(); i++) {
-			Node constraint = constraints.item(i);
-			Set<String> roles = null;
-			NodeList auth = getNodeList(constraint, xpath, XPATH_AUTH_CONSTRAINT);
+		for (WebXmlHandler document : webXml) {
+			for (SecurityConstraint constraint : document.securityConstraints) {
+				Set<String> roles = (constraint.roles != null) ? Collections.unmodifiableSet(constraint.roles) : null;
+
+				for (String urlPattern : constraint.urlPatterns) {
+					securityConstraints.put(urlPattern, roles);
+				}
+			}
+		}
+
+		return Collections.unmodifiableMap(securityConstraints);
+	}
+
+	/**
+	 * Return the configured session timeout in minutes, or <code>-1</code> if it is not defined.
+	 */
+	private static int parseSessionTimeout(List<WebXmlHandler> webXml) {
+		for (WebXmlHandler document : webXml) {
+			if (document.sessionTimeout != null) {
+				return isNumber(document.sessionTimeout) ? Integer.parseInt(document.sessionTimeout) : -1;
+			}
+		}
+
+		return -1;
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
 
-			if (auth.getLength() > 0) {
-				NodeList authRoles = getNodeList(constraint, xpath, XPATH_AUTH_CONSTRAINT_ROLE_NAME);
-				roles = new HashSet<>(authRoles.getLength());
+	/**
+	 * The error page location by exception class, resolved on first lookup as described in
+	 * {@link WebXml#findErrorPageLocation(Throwable)}, so that subsequent lookups of the same exception class don't
+	 * need to iterate over all error page locations anymore.
+	 */
+	private static final class ErrorPageLocationsByClass extends ClassValue<String> {
 
-				for (int j = 0; j < authRoles.getLength(); j++) {
-					roles.add(getTextContent(authRoles.item(j)));
+		private final Map<Class<Throwable>, String> errorPageLocations;
+
+		public ErrorPageLocationsByClass(Map<Class<Throwable>, String> errorPageLocations) {
+			this.errorPageLocations = errorPageLocations;
+		}
+
+		@Override
+		protected String computeValue(Class<?> exceptionClass) {
+			for (Entry<Class<Throwable>, String> entry : errorPageLocations.entrySet()) {
+				if (entry.getKey() == exceptionClass) {
+					return entry.getValue();
 				}
+			}
 
-				roles = Collections.unmodifiableSet(roles);
+			for (Entry<Class<Throwable>, String> entry : errorPageLocations.entrySet()) {
+				if (entry.getKey() != null && entry.getKey().isAssignableFrom(exceptionClass)) {
+					return entry.getValue();
+				}
 			}
 
-			NodeList urlPatterns = getNodeList(constraint, xpath, XPATH_WEB_RESOURCE_URL_PATTERN);
+			return errorPageLocations.get(null);
+		}
 
-			for (int j = 0; j < urlPatterns.getLength(); j++) {
-				String urlPattern = getTextContent(urlPatterns.item(j));
-				securityConstraints.put(urlPattern, roles);
+	}
+
+	/**
+	 * Collects the elements of a single <code>web.xml</code> or <code>web-fragment.xml</code> which are needed by
+	 * {@link WebXml}, in the declared order.
+	 */
+	private static final class WebXmlHandler extends ConfigXmlReader.Handler {
+
+		private final List<String> welcomeFiles = new ArrayList<>();
+		private final List<ErrorPage> errorPages = new ArrayList<>();
+		private final List<SecurityConstraint> securityConstraints = new ArrayList<>();
+		private String formLoginPage;
+		private String formErrorPage;
+		private String sessionTimeout;
+
+		private ErrorPage errorPage;
+		private SecurityConstraint securityConstraint;
+		private String authMethod;
+		private String loginPage;
+		private String errorPageOfLogin;
+
+		@Override
+		protected void startElement(String path) {
+			switch (path) {
+				case PATH_ERROR_PAGE:
+					errorPage = new ErrorPage();
+					errorPages.add(errorPage);
+					break;
+				case PATH_LOGIN_CONFIG:
+					authMethod = loginPage = errorPageOfLogin = null;
+					break;
+				case PATH_SECURITY_CONSTRAINT:
+					securityConstraint = new SecurityConstraint();
+					securityConstraints.add(securityConstraint);
+					break;
+				case PATH_AUTH_CONSTRAINT:
+					if (securityConstraint.roles == null) {
+						securityConstraint.roles = new HashSet<>();
+					}
+					break;
+				default:
+					break;
+			}
+		}
+
+		@Override
+		protected void endElement(String path, String text) {
+			switch (path) {
+				case PATH_WELCOME_FILE:
+					welcomeFiles.add(text);
+					break;
+				case PATH_ERROR_PAGE_ERROR_CODE:
+					errorPage.errorCode = (errorPage.errorCode == null) ? text : errorPage.errorCode;
+					break;
+				case PATH_ERROR_PAGE_EXCEPTION_TYPE:
+					errorPage.exceptionTypes.add(text);
+					break;
+				case PATH_ERROR_PAGE_LOCATION:
+					errorPage.location = (errorPage.location == null) ? text : errorPage.location;
+					break;
+				case PATH_AUTH_METHOD:
+					authMethod = text;
+					break;
+				case PATH_FORM_LOGIN_PAGE:
+					loginPage = (loginPage == null) ? text : loginPage;
+					break;
+				case PATH_FORM_ERROR_PAGE:
+					errorPageOfLogin = (errorPageOfLogin == null) ? text : errorPageOfLogin;
+					break;
+				case PATH_LOGIN_CONFIG:
+					if (AUTH_METHOD_FORM.equals(authMethod)) {
+						formLoginPage = (formLoginPage == null) ? loginPage : formLoginPage;
+						formErrorPage = (formErrorPage == null) ? errorPageOfLogin : formErrorPage;
+					}
+					break;
+				case PATH_AUTH_CONSTRAINT_ROLE_NAME:
+					securityConstraint.roles.add(text);
+					break;
+				case PATH_WEB_RESOURCE_URL_PATTERN:
+					securityConstraint.urlPatterns.add(text);
+					break;
+				case PATH_SESSION_TIMEOUT:
+					sessionTimeout = (sessionTimeout == null) ? text : sessionTimeout;
+					break;
+				default:
+					break;
 			}
 		}
 
-		return Collections.unmodifiableMap(securityConstraints);
 	}
 
 	/**
-	 * Return the configured session timeout in minutes, or <code>-1</code> if it is not defined.
+	 * An <code>&lt;error-page&gt;</code> element.
 	 */
-	private static int parseSessionTimeout(Element webXml, XPath xpath) throws XPathExpressionException {
-		String sessionTimeout = xpath.compile(XPATH_SESSION_TIMEOUT).evaluate(webXml).trim();
-		return isNumber(sessionTimeout) ? Integer.parseInt(sessionTimeout) : -1;
+	private static final class ErrorPage {
+
+		private String errorCode;
+		private final List<String> exceptionTypes = new ArrayList<>(1);
+		private String location;
+
+	}
+
+	/**
+	 * A <code>&lt;security-constraint&gt;</code> element.
+	 */
+	private static final class SecurityConstraint {
+
+		private Set<String> roles;
+		private final List<String> urlPatterns = new ArrayList<>();
+
 	}
 
-}
\ No newline at end of file
+}
@@ -12,15 +12,19 @@
  */
 package org.omnifaces.facesviews;
 
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Locale.US;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.regex.Pattern.quote;
 import static javax.faces.view.facelets.ResourceResolver.FACELETS_RESOURCE_RESOLVER_PARAM_NAME;
 import static org.omnifaces.facesviews.FacesServletDispatchMethod.DO_FILTER;
 import static org.omnifaces.util.Faces.getApplicationAttribute;
 import static org.omnifaces.util.Faces.getApplicationFromFactory;
+import static org.omnifaces.util.FacesLocal.getServletContext;
 import static org.omnifaces.util.Platform.getFacesServletRegistration;
+import static org.omnifaces.util.ResourcePaths.extensionStart;
 import static org.omnifaces.util.ResourcePaths.filterExtension;
 import static org.omnifaces.util.ResourcePaths.getExtension;
 import static org.omnifaces.util.ResourcePaths.isDirectory;
@@ -28,21 +32,26 @@ import static org.omnifaces.util.ResourcePaths.isExtensionless;
 import static org.omnifaces.util.ResourcePaths.stripExtension;
 import static org.omnifaces.util.ResourcePaths.stripPrefixPath;
 import static org.omnifaces.util.Servlets.getApplicationAttribute;
-import static org.omnifaces.util.Servlets.getRequestBaseURL;
+import static org.omnifaces.util.Servlets.getRequestDomainURLBuffer;
 import static org.omnifaces.util.Servlets.isFacesDevelopment;
 import static org.omnifaces.util.Utils.csvToList;
 import static org.omnifaces.util.Utils.isEmpty;
 import static org.omnifaces.util.Utils.reverse;
 import static org.omnifaces.util.Utils.startsWithOneOf;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 import javax.faces.application.Application;
-import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.webapp.FacesServlet;
 import javax.servlet.FilterRegistration;
@@ -53,6 +62,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.omnifaces.ApplicationInitializer;
 import org.omnifaces.ApplicationListener;
 import org.omnifaces.config.WebXml;
+import org.omnifaces.util.Callback;
+import org.omnifaces.util.Platform;
 
 /**
  * <p>
@@ -99,6 +110,13 @@ public final class FacesViews {
 	private FacesViews() {
 	}
 
+	private static final Logger logger = Logger.getLogger(FacesViews.class.getName());
+
+	private static final String LOG_VIEWS_SCANNED = "FacesViews: scanned %d views in %d ms.";
+	private static final String LOG_VIEWS_INDEXED = "FacesViews: loaded %d views from index in %d ms.";
+	private static final String ERROR_SCAN_INTERRUPTED = "FacesViews: interrupted while scanning views.";
+	private static final int MAX_SCAN_TASKS = 8; // Maximum amount of tasks listing the directories of a level at once.
+
 	/**
 	 * A special dedicated "well-known" directory where facelets implementing views can be placed.
 	 * This directory is scanned by convention so that no explicit configuration is needed.
@@ -154,6 +172,13 @@ public final class FacesViews {
 	 */
 	public static final String FACES_VIEWS_VIEW_HANDLER_MODE_PARAM_NAME = "org.omnifaces.FACES_VIEWS_VIEW_HANDLER_MODE";
 
+	/**
+	 * The name of the boolean init parameter (in web.xml) via which the user can set whether the scanned views should be
+	 * saved in an index file in the work directory, so that they don't need to be scanned again on the next startup as
+	 * long as the scanned directories on disk haven't changed. See {@link FacesViewsIndex}.
+	 */
+	public static final String FACES_VIEWS_SCAN_INDEX_PARAM_NAME = "org.omnifaces.FACES_VIEWS_SCAN_INDEX";
+
 	/**
 	 * The name of the application scope context parameter under which a Set version of the paths that are to be scanned
 	 * by faces views are kept.
@@ -196,13 +221,27 @@ public final class FacesViews {
 			// Scan our dedicated directory for Faces resources that need to be mapped
 			Map<String, String> collectedViews = new HashMap<>();
 			Set<String> collectedExtensions = new HashSet<>();
-			scanViewsFromRootPaths(servletContext, collectedViews, collectedExtensions);
+			long start = System.nanoTime();
+			FacesViewsIndex index = FacesViewsIndex.of(servletContext);
+			boolean indexed = index != null && index.load(collectedViews, collectedExtensions);
+
+			if (!indexed) {
+				scanViewsFromRootPaths(servletContext, collectedViews, collectedExtensions);
+
+				if (index != null) {
+					index.save(collectedViews, collectedExtensions);
+				}
+			}
+
+			Map<String, String> reverseCollectedViews = reverse(collectedViews);
+			logger.info(String.format(indexed ? LOG_VIEWS_INDEXED : LOG_VIEWS_SCANNED,
+				reverseCollectedViews.size(), NANOSECONDS.toMillis(System.nanoTime() - start)));
 
 			if (!collectedViews.isEmpty()) {
 
 				// Store the resources and extensions that were found in application scope, where others can find it.
 				servletContext.setAttribute(FACES_VIEWS_RESOURCES, unmodifiableMap(collectedViews));
-				servletContext.setAttribute(FACES_VIEWS_REVERSE_RESOURCES, unmodifiableMap(reverse(collectedViews)));
+				servletContext.setAttribute(FACES_VIEWS_REVERSE_RESOURCES, unmodifiableMap(reverseCollectedViews));
 				servletContext.setAttribute(FACES_VIEWS_RESOURCES_EXTENSIONS, unmodifiableSet(collectedExtensions));
 
 				// Register 3 artifacts with the Servlet container and JSF that help implement this feature:
@@ -297,7 +336,7 @@ public final class FacesViews {
 	public static void setViewHander(ServletContext servletContext) {
 		if (isFacesViewsActive(servletContext)) {
 			Application application = getApplicationFromFactory();
-			application.setViewHandler(new FacesViewsViewHandler(application.getViewHandler()));
+			application.setViewHandler(new FacesViewsViewHandler(application.getViewHandler(), servletContext));
 		}
 	}
 
@@ -309,20 +348,100 @@ public final class FacesViews {
 		return false;
 	}
 
+	/**
+	 * Scans resources (views) recursively starting with all root paths, and collects those and optionally all unique
+	 * extensions encountered in a flat map respectively set. Each root path is scanned breadth-first, level by level.
+	 * When a level has more than one directory, then the (potentially slow) {@link ServletContext#getResourcePaths(String)}
+	 * calls of that level are performed in parallel via {@link Platform#getExecutorService()}. The views are collected in
+	 * the current thread only, in the order of the root paths.
+	 *
+	 * @param servletContext The involved servlet context.
+	 * @param collectedViews The map in which all views encountered during scanning will be collected.
+	 * @param collectedExtensions The set in which all unique extensions will be collected. May be null, in which case
+	 * no extensions will be collected.
+	 */
 	public static void scanViewsFromRootPaths(ServletContext servletContext, Map<String, String> collectedViews, Set<String> collectedExtensions) {
-		for (String rootPath : getRootPaths(servletContext)) {
+		for (ScanRoot scanRoot : getScanRoots(servletContext)) {
+			List<String> directories = singletonList(scanRoot.path);
 
-			String extensionToScan = null;
-			if (rootPath.contains("*")) {
-				String[] pathAndExtension = rootPath.split(quote("*"));
-				rootPath = pathAndExtension[0];
-				extensionToScan = pathAndExtension[1];
+			while (!directories.isEmpty()) {
+				List<String> subDirectories = new ArrayList<>();
+
+				for (Set<String> resourcePaths : getResourcePaths(servletContext, directories)) {
+					if (resourcePaths == null) {
+						continue;
+					}
+
+					for (String resourcePath : resourcePaths) {
+						if (isDirectory(resourcePath)) {
+							if (canScanDirectory(scanRoot.path, resourcePath)) {
+								subDirectories.add(resourcePath);
+							}
+						}
+						else {
+							collectView(scanRoot.path, resourcePath, collectedViews, scanRoot.extensionToScan, collectedExtensions);
+						}
+					}
+				}
+
+				directories = subDirectories;
 			}
+		}
+	}
 
-			rootPath = normalizeRootPath(rootPath);
+	/**
+	 * Returns the resource paths of the given directories, in the same order. When there is more than one directory,
+	 * then the directories are split in contiguous ranges which are listed in parallel.
+	 */
+	private static List<Set<String>> getResourcePaths(final ServletContext servletContext, final List<String> directories) {
+		if (directories.size() == 1) {
+			return singletonList(servletContext.getResourcePaths(directories.get(0)));
+		}
 
-			scanViews(servletContext, rootPath, servletContext.getResourcePaths(rootPath), collectedViews, extensionToScan, collectedExtensions);
+		int tasks = Math.min(directories.size(), MAX_SCAN_TASKS);
+		List<Callable<List<Set<String>>>> callables = new ArrayList<>(tasks);
+
+		for (int i = 0; i < tasks; i++) {
+			final int from = i * directories.size() / tasks;
+			final int to = (i + 1) * directories.size() / tasks;
+
+			callables.add(new Callable<List<Set<String>>>() {
+				@Override
+				public List<Set<String>> call() {
+					List<Set<String>> resourcePaths = new ArrayList<>(to - from);
+
+					for (String directory : directories.subList(from, to)) {
+						resourcePaths.add(servletContext.getResourcePaths(directory));
+					}
+
+					return resourcePaths;
+				}
+			});
 		}
+
+		List<Set<String>> resourcePaths = new ArrayList<>(directories.size());
+
+		try {
+			for (Future<List<Set<String>>> future : Platform.getExecutorService().invokeAll(callables)) {
+				resourcePaths.addAll(future.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ERROR_SCAN_INTERRUPTED, e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return resourcePaths;
 	}
 
 	public static Set<String> getRootPaths(ServletContext servletContext) {
@@ -338,24 +457,36 @@ public final class FacesViews {
 		return rootPaths;
 	}
 
+	/**
+	 * Returns the root paths as {@link ScanRoot}s, with the path normalized and the extension to scan split off.
+	 */
+	static List<ScanRoot> getScanRoots(ServletContext servletContext) {
+		List<ScanRoot> scanRoots = new ArrayList<>();
+
+		for (String rootPath : getRootPaths(servletContext)) {
+			String extensionToScan = null;
+
+			if (rootPath.contains("*")) {
+				String[] pathAndExtension = rootPath.split(quote("*"));
+				rootPath = pathAndExtension[0];
+				extensionToScan = (pathAndExtension.length > 1) ? pathAndExtension[1] : null;
+			}
+
+			scanRoots.add(new ScanRoot(normalizeRootPath(rootPath), extensionToScan));
+		}
+
+		return scanRoots;
+	}
+
 	public static Set<String> getPublicRootPaths(ServletContext servletContext) {
 		@SuppressWarnings("unchecked")
 		Set<String> publicRootPaths = (Set<String>) servletContext.getAttribute(PUBLIC_SCAN_PATHS);
 
 		if (publicRootPaths == null) {
-			Set<String> rootPaths = getRootPaths(servletContext);
 			publicRootPaths = new HashSet<>();
-			for (String rootPath : rootPaths) {
-
-				if (rootPath.contains("*")) {
-					String[] pathAndExtension = rootPath.split(quote("*"));
-					rootPath = pathAndExtension[0];
-				}
-
-				rootPath = normalizeRootPath(rootPath);
-
-				if (!"/".equals(rootPath) && !startsWithOneOf(rootPath, "/WEB-INF/", "/META-INF/")) {
-					publicRootPaths.add(rootPath);
+			for (ScanRoot scanRoot : getScanRoots(servletContext)) {
+				if (!"/".equals(scanRoot.path) && !startsWithOneOf(scanRoot.path, "/WEB-INF/", "/META-INF/")) {
+					publicRootPaths.add(scanRoot.path);
 				}
 			}
 			servletContext.setAttribute(PUBLIC_SCAN_PATHS, unmodifiableSet(publicRootPaths));
@@ -471,19 +602,35 @@ public final class FacesViews {
 		return Boolean.valueOf(filterAfterDeclaredFilters);
 	}
 
+	/**
+	 * Returns whether scanned views should always be rendered extensionless, as configured by the
+	 * {@value #FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME} context parameter. This delegates to
+	 * {@link #isScannedViewsAlwaysExtensionless(ServletContext)}.
+	 * @param context The involved faces context.
+	 * @return Whether scanned views should always be rendered extensionless. Defaults to <code>true</code>.
+	 */
 	public static boolean isScannedViewsAlwaysExtensionless(final FacesContext context) {
+		return isScannedViewsAlwaysExtensionless(getServletContext(context));
+	}
 
-		ExternalContext externalContext = context.getExternalContext();
-		Map<String, Object> applicationMap = externalContext.getApplicationMap();
+	/**
+	 * Returns whether scanned views should always be rendered extensionless, as configured by the
+	 * {@value #FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME} context parameter. The result is cached in the
+	 * servlet context.
+	 * @param servletContext The involved servlet context.
+	 * @return Whether scanned views should always be rendered extensionless. Defaults to <code>true</code>.
+	 * @since 2.1
+	 */
+	public static boolean isScannedViewsAlwaysExtensionless(ServletContext servletContext) {
 
-		Boolean scannedViewsExtensionless = (Boolean) applicationMap.get(SCANNED_VIEWS_EXTENSIONLESS);
+		Boolean scannedViewsExtensionless = (Boolean) servletContext.getAttribute(SCANNED_VIEWS_EXTENSIONLESS);
 		if (scannedViewsExtensionless == null) {
-			if (externalContext.getInitParameter(FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME) == null) {
+			if (servletContext.getInitParameter(FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME) == null) {
 				scannedViewsExtensionless = true;
 			} else {
-				scannedViewsExtensionless = Boolean.valueOf(externalContext.getInitParameter(FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME));
+				scannedViewsExtensionless = Boolean.valueOf(servletContext.getInitParameter(FACES_VIEWS_SCANNED_VIEWS_EXTENSIONLESS_PARAM_NAME));
 			}
-			applicationMap.put(SCANNED_VIEWS_EXTENSIONLESS, scannedViewsExtensionless);
+			servletContext.setAttribute(SCANNED_VIEWS_EXTENSIONLESS, scannedViewsExtensionless);
 		}
 
 		return scannedViewsExtensionless;
@@ -510,28 +657,53 @@ public final class FacesViews {
 	 */
 	public static void scanViews(ServletContext servletContext, String rootPath, Set<String> resourcePaths, Map<String, String> collectedViews,
 			String extensionToScan, Set<String> collectedExtensions) {
+		scanViews(servletContext, rootPath, resourcePaths, collectedViews, extensionToScan, collectedExtensions, null);
+	}
+
+	/**
+	 * Scans resources (views) the same way as {@link #scanViews(ServletContext, String, Set, Map, String, Set)}, and
+	 * invokes the given callback, if any, with every sub directory right before it's scanned.
+	 */
+	static void scanViews(ServletContext servletContext, String rootPath, Set<String> resourcePaths, Map<String, String> collectedViews,
+			String extensionToScan, Set<String> collectedExtensions, Callback.WithArgument<String> directoryCallback) {
 
 		if (!isEmpty(resourcePaths)) {
 			for (String resourcePath : resourcePaths) {
 				if (isDirectory(resourcePath)) {
 					if (canScanDirectory(rootPath, resourcePath)) {
-						scanViews(servletContext, rootPath, servletContext.getResourcePaths(resourcePath), collectedViews, extensionToScan, collectedExtensions);
+						if (directoryCallback != null) {
+							directoryCallback.invoke(resourcePath);
+						}
+
+						scanViews(servletContext, rootPath, servletContext.getResourcePaths(resourcePath), collectedViews, extensionToScan, collectedExtensions, directoryCallback);
 					}
-				} else if (canScanResource(resourcePath, extensionToScan)) {
+				} else {
+					collectView(rootPath, resourcePath, collectedViews, extensionToScan, collectedExtensions);
+				}
+			}
+		}
+	}
 
-					// Strip the root path from the current path. E.g.
-					// /WEB-INF/faces-views/foo.xhtml will become foo.xhtml if the root path = /WEB-INF/faces-view/
-					String resource = stripPrefixPath(rootPath, resourcePath);
+	/**
+	 * Collects the given resource (view) if it can be scanned. See {@link #scanViews(ServletContext, String, Set, Map, String, Set)}
+	 * for a description of the parameters.
+	 */
+	static void collectView(String rootPath, String resourcePath, Map<String, String> collectedViews, String extensionToScan,
+			Set<String> collectedExtensions) {
 
-					// Store the resource with and without an extension, e.g. store both foo.xhtml and foo
-					collectedViews.put(resource, resourcePath);
-					collectedViews.put(stripExtension(resource), resourcePath);
+		if (canScanResource(resourcePath, extensionToScan)) {
 
-					// Optionally, collect all unique extensions that we have encountered
-					if (collectedExtensions != null) {
-						collectedExtensions.add("*" + getExtension(resourcePath));
-					}
-				}
+			// Strip the root path from the current path. E.g.
+			// /WEB-INF/faces-views/foo.xhtml will become foo.xhtml if the root path = /WEB-INF/faces-view/
+			String resource = stripPrefixPath(rootPath, resourcePath);
+
+			// Store the resource with and without an extension, e.g. store both foo.xhtml and foo
+			collectedViews.put(resource, resourcePath);
+			collectedViews.put(stripExtension(resource), resourcePath);
+
+			// Optionally, collect all unique extensions that we have encountered
+			if (collectedExtensions != null) {
+				collectedExtensions.add("*" + getExtension(resourcePath));
 			}
 		}
 	}
@@ -687,14 +859,33 @@ public final class FacesViews {
 	 * @return request URL with query parameters but without file extension
 	 */
 	public static String getExtensionlessURLWithQuery(HttpServletRequest request, String resource) {
-		String queryString = !isEmpty(request.getQueryString()) ? "?" + request.getQueryString() : "";
+		StringBuffer url = getRequestDomainURLBuffer(request).append(request.getContextPath());
+		int extensionStart = extensionStart(resource);
+		url.append(resource, 0, (extensionStart != -1) ? extensionStart : resource.length());
+		String queryString = request.getQueryString();
+
+		if (!isEmpty(queryString)) {
+			url.append('?').append(queryString);
+		}
+
+		return url.toString();
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * A root path to scan views from, along with the extension to scan for, if any.
+	 */
+	static final class ScanRoot {
+
+		final String path;
+		final String extensionToScan;
 
-		String baseURL = getRequestBaseURL(request);
-		if (baseURL.endsWith("/")) {
-			baseURL = baseURL.substring(0, baseURL.length()-1);
+		ScanRoot(String path, String extensionToScan) {
+			this.path = path;
+			this.extensionToScan = extensionToScan;
 		}
 
-		return baseURL + stripExtension(resource) + queryString;
 	}
 
 }
\ No newline at end of file
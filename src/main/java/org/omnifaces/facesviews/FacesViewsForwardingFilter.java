@@ -12,25 +12,26 @@
  */
 package org.omnifaces.facesviews;
 
-import static javax.faces.application.ProjectStage.Development;
 import static javax.servlet.http.HttpServletResponse.SC_MOVED_PERMANENTLY;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_ORIGINAL_SERVLET_PATH;
 import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_RESOURCES;
-import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_REVERSE_RESOURCES;
 import static org.omnifaces.facesviews.FacesViews.getExtensionAction;
 import static org.omnifaces.facesviews.FacesViews.getExtensionlessURLWithQuery;
 import static org.omnifaces.facesviews.FacesViews.getFacesServletDispatchMethod;
 import static org.omnifaces.facesviews.FacesViews.getPathAction;
 import static org.omnifaces.facesviews.FacesViews.isResourceInPublicPath;
-import static org.omnifaces.facesviews.FacesViews.scanAndStoreViews;
-import static org.omnifaces.util.Faces.getApplicationFromFactory;
 import static org.omnifaces.util.ResourcePaths.getExtension;
 import static org.omnifaces.util.ResourcePaths.isExtensionless;
 import static org.omnifaces.util.Servlets.getApplicationAttribute;
+import static org.omnifaces.util.Servlets.isFacesDevelopment;
+import static org.omnifaces.util.Utils.reverse;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.servlet.FilterChain;
 import javax.servlet.RequestDispatcher;
@@ -64,9 +65,19 @@ import org.omnifaces.filter.HttpFilter;
  */
 public class FacesViewsForwardingFilter extends HttpFilter {
 
+	private static final Route SEND_404 = new Route(RouteType.SEND_404, null);
+
 	private ExtensionAction extensionAction;
 	private PathAction pathAction;
 	private FacesServletDispatchMethod dispatchMethod;
+	private boolean development;
+	private volatile FacesViewsWatcher watcher;
+
+	/** The FacesViews resources from which the routes are compiled. */
+	private volatile Map<String, String> routedResources;
+
+	/** The routes by servlet path. A servlet path without a route proceeds the chain as-is. */
+	private volatile Map<String, Route> routes;
 
 	@Override
 	public void init() throws ServletException {
@@ -76,136 +87,220 @@ public class FacesViewsForwardingFilter extends HttpFilter {
 			extensionAction = getExtensionAction(servletContext);
 			pathAction = getPathAction(servletContext);
 			dispatchMethod = getFacesServletDispatchMethod(servletContext);
+			development = isFacesDevelopment(servletContext);
 		}
 		catch (IllegalStateException e) {
 			throw new ServletException(e);
 		}
+
+		Map<String, String> resources = getApplicationAttribute(servletContext, FACES_VIEWS_RESOURCES);
+
+		if (resources != null) {
+			compileRoutes(resources);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (watcher != null) {
+			watcher.close();
+		}
+
+		super.destroy();
 	}
 
 	@Override
-	public void doFilter(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain) throws ServletException, IOException {
+	public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
 		String resource = request.getServletPath();
+		Route route = getRoute(resource);
 
-		if (filterExtensionLess(request, response, chain, resource)) {
-			return;
-		}
-		else if (filterExtension(request, response, resource)) {
-			return;
-		}
-		else if (filterPublicPath(request, response, resource)) {
-			return;
+		if (route != null) {
+			switch (route.type) {
+				case DISPATCH:
+					if (dispatch(request, response, chain, resource, route.value)) {
+						return;
+					}
+
+					break;
+				case REDIRECT:
+					redirectPermanent(response, getExtensionlessURLWithQuery(request, route.value));
+					return;
+				case SEND_404:
+					response.sendError(SC_NOT_FOUND);
+					return;
+			}
 		}
 
 		chain.doFilter(request, response);
 	}
 
 	/**
-	 * A mapped resource request without extension is encountered.
-	 * The user setting "dispatchMethod" determines how we handle this.
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as routing the request
+	 * doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
+	/**
+	 * Returns the routes, compiling them first if the FacesViews resources were not available during init.
 	 */
-	private boolean filterExtensionLess(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String resource) throws IOException, ServletException {
-		if (!isExtensionless(resource)) {
-			return false;
+	private Map<String, Route> getRoutes() {
+		if (routes == null) {
+			Map<String, String> resources = getApplicationAttribute(getServletContext(), FACES_VIEWS_RESOURCES);
+			compileRoutes((resources != null) ? resources : Collections.<String, String>emptyMap());
 		}
 
-		Map<String, String> resources = getApplicationAttribute(getServletContext(), FACES_VIEWS_RESOURCES);
+		return routes;
+	}
 
-		if (getApplicationFromFactory().getProjectStage() == Development && !resources.containsKey(resource)) {
-			// Check if the resource was dynamically added by scanning the faces-views location(s) again.
-			resources = scanAndStoreViews(getServletContext());
-		}
+	/**
+	 * Returns the route of the given resource. In development stage, the routes are first recompiled when the
+	 * FacesViews resources have changed since, so that routes of added views become available and routes of deleted
+	 * views are removed. When an extensionless resource has no route, then additionally check if it was dynamically
+	 * added to the faces-views location(s) in a way which the watcher couldn't detect.
+	 */
+	private Route getRoute(String resource) {
+		Map<String, Route> currentRoutes = getRoutes();
 
-		if (resources.containsKey(resource)) {
-			String extension = getExtension(resources.get(resource));
-
-			switch (dispatchMethod) {
-				case DO_FILTER:
-					// Continue the chain, but make the request appear to be to the resource with an extension.
-					// This assumes that the FacesServlet has been mapped to something that includes the extensionless
-					// request.
-					try {
-						request.setAttribute(FACES_VIEWS_ORIGINAL_SERVLET_PATH, request.getServletPath());
-						chain.doFilter(new UriExtensionRequestWrapper(request, extension), response);
-					}
-					finally {
-						request.removeAttribute(FACES_VIEWS_ORIGINAL_SERVLET_PATH);
-					}
+		if (development) {
+			FacesViewsWatcher currentWatcher = getWatcher();
+			Map<String, String> resources = currentWatcher.getResources();
 
-					return true;
-				case FORWARD:
-					// Forward the resource (view) using its original extension, on which the Facelets Servlet
-					// is mapped. Technically it matters most that the Facelets Servlet picks up the
-					// request, and the exact extension or even prefix is perhaps less relevant.
-					RequestDispatcher requestDispatcher = getServletContext().getRequestDispatcher(resource + extension);
-
-					if (requestDispatcher != null) {
-						requestDispatcher.forward(request, response);
-						return true;
-					}
+			if (!currentRoutes.containsKey(resource) && isExtensionless(resource)) {
+				resources = currentWatcher.getResources(resource);
+			}
+
+			if (resources != routedResources) {
+				compileRoutes(resources);
+				currentRoutes = routes;
 			}
 		}
 
-		return false;
+		return currentRoutes.get(resource);
 	}
 
 	/**
-	 * A mapped resource request with extension is encountered.
-	 * The user setting "extensionAction" determines how we handle this.
+	 * Compile the routes of all FacesViews resources, resolving the extension action and path action in advance, with
+	 * the same precedence as they would be checked for a request: first a mapped resource request without extension,
+	 * then a mapped resource request with extension, then a direct request to one of the public paths (excluding /)
+	 * from where we scanned resources.
 	 */
-	private boolean filterExtension(HttpServletRequest request, HttpServletResponse response, String resource) throws IOException {
-		Map<String, String> resources = getApplicationAttribute(getServletContext(), FACES_VIEWS_RESOURCES);
+	private synchronized void compileRoutes(Map<String, String> resources) {
+		Map<String, Route> compiledRoutes = new HashMap<>();
 
-		if (resources.containsKey(resource)) {
-			switch (extensionAction) {
-				case REDIRECT_TO_EXTENSIONLESS:
-					redirectPermanent(response, getExtensionlessURLWithQuery(request));
-					return true;
-				case SEND_404:
-					response.sendError(SC_NOT_FOUND);
-					return true;
-				case PROCEED:
-					break;
-				default:
-					break;
+		if (pathAction != PathAction.PROCEED) {
+			for (Entry<String, String> entry : reverse(resources).entrySet()) {
+				if (isResourceInPublicPath(getServletContext(), entry.getKey())) {
+					compiledRoutes.put(entry.getKey(), (pathAction == PathAction.SEND_404) ? SEND_404 : new Route(RouteType.REDIRECT, entry.getValue()));
+				}
 			}
 		}
 
-		return false;
+		Map<String, Route> dispatchRoutes = new HashMap<>();
+
+		for (Entry<String, String> entry : resources.entrySet()) {
+			String resource = entry.getKey();
+
+			if (isExtensionless(resource)) {
+				String extension = getExtension(entry.getValue());
+				Route route = dispatchRoutes.get(extension);
+
+				if (route == null) {
+					route = new Route(RouteType.DISPATCH, extension);
+					dispatchRoutes.put(extension, route);
+				}
+
+				compiledRoutes.put(resource, route);
+			}
+			else if (extensionAction != ExtensionAction.PROCEED) {
+				compiledRoutes.put(resource, (extensionAction == ExtensionAction.SEND_404) ? SEND_404 : new Route(RouteType.REDIRECT, resource));
+			}
+		}
+
+		routes = compiledRoutes;
+		routedResources = resources;
 	}
 
 	/**
-	 * A direct request to one of the public paths (excluding /) from where we scanned resources is encountered.
-	 * The user setting "pathAction" determines how we handle this.
+	 * A mapped resource request without extension is encountered.
+	 * The user setting "dispatchMethod" determines how we handle this.
 	 */
-	private boolean filterPublicPath(HttpServletRequest request, HttpServletResponse response, String resource) throws IOException {
-		if (!isResourceInPublicPath(getServletContext(), resource)) {
-			return false;
-		}
+	private boolean dispatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String resource, String extension) throws IOException, ServletException {
+		switch (dispatchMethod) {
+			case DO_FILTER:
+				// Continue the chain, but make the request appear to be to the resource with an extension.
+				// This assumes that the FacesServlet has been mapped to something that includes the extensionless
+				// request.
+				try {
+					request.setAttribute(FACES_VIEWS_ORIGINAL_SERVLET_PATH, request.getServletPath());
+					chain.doFilter(new UriExtensionRequestWrapper(request, extension), response);
+				}
+				finally {
+					request.removeAttribute(FACES_VIEWS_ORIGINAL_SERVLET_PATH);
+				}
 
-		Map<String, String> reverseResources = getApplicationAttribute(getServletContext(), FACES_VIEWS_REVERSE_RESOURCES);
+				return true;
+			case FORWARD:
+				// Forward the resource (view) using its original extension, on which the Facelets Servlet
+				// is mapped. Technically it matters most that the Facelets Servlet picks up the
+				// request, and the exact extension or even prefix is perhaps less relevant.
+				RequestDispatcher requestDispatcher = getServletContext().getRequestDispatcher(resource + extension);
 
-		if (reverseResources.containsKey(resource)) {
-			switch (pathAction) {
-				case REDIRECT_TO_SCANNED_EXTENSIONLESS:
-					redirectPermanent(response, getExtensionlessURLWithQuery(request, reverseResources.get(resource)));
+				if (requestDispatcher != null) {
+					requestDispatcher.forward(request, response);
 					return true;
-				case SEND_404:
-					response.sendError(SC_NOT_FOUND);
-					return true;
-				case PROCEED:
-					break;
-				default:
-					break;
-			}
+				}
 		}
 
 		return false;
 	}
 
+	/**
+	 * Lazily create the watcher which keeps the resources up to date in development stage.
+	 */
+	private FacesViewsWatcher getWatcher() {
+		if (watcher == null) {
+			synchronized (this) {
+				if (watcher == null) {
+					watcher = new FacesViewsWatcher(getServletContext());
+				}
+			}
+		}
+
+		return watcher;
+	}
+
 	private static void redirectPermanent(HttpServletResponse response, String url) {
 		response.setStatus(SC_MOVED_PERMANENTLY);
 		response.setHeader("Location", url);
 		response.setHeader("Connection", "close");
 	}
 
-}
\ No newline at end of file
+	/**
+	 * The type of a route.
+	 */
+	private enum RouteType {
+		DISPATCH, REDIRECT, SEND_404;
+	}
+
+	/**
+	 * A precompiled route, consisting of the type and the extension to dispatch to, or the resource to redirect to.
+	 */
+	private static final class Route {
+
+		private final RouteType type;
+		private final String value;
+
+		public Route(RouteType type, String value) {
+			this.type = type;
+			this.value = value;
+		}
+
+	}
+
+}
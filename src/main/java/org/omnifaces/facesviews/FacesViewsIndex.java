@@ -0,0 +1,295 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.facesviews;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_SCAN_INDEX_PARAM_NAME;
+import static org.omnifaces.facesviews.FacesViews.getRootPaths;
+import static org.omnifaces.facesviews.FacesViews.getScanRoots;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContext;
+
+import org.omnifaces.facesviews.FacesViews.ScanRoot;
+
+/**
+ * A persistent index of the views and extensions scanned by FacesViews, stored in the work directory of the web
+ * application as provided by the servlet container via {@link ServletContext#TEMPDIR}. This is only used when the
+ * {@link FacesViews#FACES_VIEWS_SCAN_INDEX_PARAM_NAME} context parameter is set to <code>true</code>.
+ * <p>
+ * The index is validated against a fingerprint of the scanned directories on disk, consisting of the root paths, the
+ * amount of files and the most recent last modified time of all files and directories therein, including the
+ * <code>/WEB-INF/lib</code> directory as JARs may provide views as well. Computing this fingerprint is much cheaper
+ * than scanning via {@link ServletContext#getResourcePaths(String)}. When any root path is not available on disk,
+ * e.g. when the web application is not deployed as an exploded WAR, then the index is not used at all.
+ * <p>
+ * The index is written to a temporary file in the same directory first, which then atomically replaces the index, so
+ * that a concurrent or interrupted save never leaves a partially written index behind.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see FacesViews#registerFilter(ServletContext)
+ */
+final class FacesViewsIndex {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final Logger logger = Logger.getLogger(FacesViewsIndex.class.getName());
+
+	private static final String INDEX_FILE_NAME = "omnifaces-faces-views.index";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	private static final int INDEX_FORMAT_VERSION = 1;
+	private static final String WEB_INF_LIB = "/WEB-INF/lib/";
+
+	private static final String LOG_LOAD_FAILED = "FacesViews: cannot load index '%s'; scanning views instead.";
+	private static final String LOG_SAVE_FAILED = "FacesViews: cannot save index '%s'.";
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final File index;
+	private final Fingerprint fingerprint;
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private FacesViewsIndex(File index, Fingerprint fingerprint) {
+		this.index = index;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Returns the index of the given servlet context, with the fingerprint of the scanned directories computed at this
+	 * moment, so that it must be obtained before scanning.
+	 * @param servletContext The involved servlet context.
+	 * @return The index, or <code>null</code> if the index is not enabled, if there is no work directory, or if any
+	 * root path is not available on disk.
+	 */
+	public static FacesViewsIndex of(ServletContext servletContext) {
+		if (!Boolean.valueOf(servletContext.getInitParameter(FACES_VIEWS_SCAN_INDEX_PARAM_NAME))) {
+			return null;
+		}
+
+		Object tempDir = servletContext.getAttribute(ServletContext.TEMPDIR);
+
+		if (!(tempDir instanceof File)) {
+			return null;
+		}
+
+		Fingerprint fingerprint = Fingerprint.of(servletContext);
+		return (fingerprint != null) ? new FacesViewsIndex(new File((File) tempDir, INDEX_FILE_NAME), fingerprint) : null;
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Load the views and extensions from the index into the given map and set, if the index is available and still
+	 * valid.
+	 * @param collectedViews The map to load the views into.
+	 * @param collectedExtensions The set to load the extensions into.
+	 * @return <code>true</code> if the index has been loaded, otherwise <code>false</code>, in which case the views
+	 * have to be scanned.
+	 */
+	public boolean load(Map<String, String> collectedViews, Set<String> collectedExtensions) {
+		if (!index.isFile()) {
+			return false;
+		}
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+			if (input.readInt() != INDEX_FORMAT_VERSION || !fingerprint.equals(Fingerprint.read(input))) {
+				return false;
+			}
+
+			for (int i = input.readInt(); i > 0; i--) {
+				collectedExtensions.add(input.readUTF());
+			}
+
+			for (int i = input.readInt(); i > 0; i--) {
+				collectedViews.put(input.readUTF(), input.readUTF());
+			}
+
+			return true;
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, String.format(LOG_LOAD_FAILED, index), e);
+			collectedViews.clear();
+			collectedExtensions.clear();
+			return false;
+		}
+	}
+
+	/**
+	 * Save the given views and extensions into the index. The index is replaced atomically; when this fails, the
+	 * existing index, if any, is left untouched.
+	 * @param collectedViews The views to save.
+	 * @param collectedExtensions The extensions to save.
+	 */
+	public void save(Map<String, String> collectedViews, Set<String> collectedExtensions) {
+		File temp = null;
+
+		try {
+			temp = File.createTempFile(INDEX_FILE_NAME, TEMP_FILE_SUFFIX, index.getParentFile());
+			write(temp, collectedViews, collectedExtensions);
+			Files.move(temp.toPath(), index.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, String.format(LOG_SAVE_FAILED, index), e);
+
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private void write(File file, Map<String, String> collectedViews, Set<String> collectedExtensions) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			output.writeInt(INDEX_FORMAT_VERSION);
+			fingerprint.write(output);
+			output.writeInt(collectedExtensions.size());
+
+			for (String extension : collectedExtensions) {
+				output.writeUTF(extension);
+			}
+
+			output.writeInt(collectedViews.size());
+
+			for (Entry<String, String> view : collectedViews.entrySet()) {
+				output.writeUTF(view.getKey());
+				output.writeUTF(view.getValue());
+			}
+		}
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * The fingerprint of the scanned directories on disk.
+	 */
+	private static final class Fingerprint {
+
+		private final String rootPaths;
+		private int fileCount;
+		private long lastModified;
+
+		private Fingerprint(String rootPaths) {
+			this.rootPaths = rootPaths;
+		}
+
+		/**
+		 * Compute the fingerprint of the scanned directories of the given servlet context, or <code>null</code> if any
+		 * of them is not available on disk.
+		 */
+		public static Fingerprint of(ServletContext servletContext) {
+			Set<String> directories = new TreeSet<>();
+
+			for (ScanRoot scanRoot : getScanRoots(servletContext)) {
+				directories.add(scanRoot.path);
+			}
+
+			final Fingerprint fingerprint = new Fingerprint(new TreeSet<>(getRootPaths(servletContext)).toString());
+			directories.add(WEB_INF_LIB);
+
+			for (String directory : directories) {
+				String realPath = servletContext.getRealPath(directory);
+
+				if (realPath == null) {
+					return null;
+				}
+
+				Path path = Paths.get(realPath);
+
+				if (!Files.isDirectory(path)) {
+					continue; // Directory doesn't exist; it doesn't contribute to the fingerprint.
+				}
+
+				try {
+					Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+						@Override
+						public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+							fingerprint.update(attributes);
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+							fingerprint.fileCount++;
+							fingerprint.update(attributes);
+							return FileVisitResult.CONTINUE;
+						}
+					});
+				}
+				catch (IOException e) {
+					logger.log(Level.FINE, "FacesViews: cannot compute index fingerprint.", e);
+					return null;
+				}
+			}
+
+			return fingerprint;
+		}
+
+		private void update(BasicFileAttributes attributes) {
+			lastModified = Math.max(lastModified, attributes.lastModifiedTime().toMillis());
+		}
+
+		public static Fingerprint read(DataInputStream input) throws IOException {
+			Fingerprint fingerprint = new Fingerprint(input.readUTF());
+			fingerprint.fileCount = input.readInt();
+			fingerprint.lastModified = input.readLong();
+			return fingerprint;
+		}
+
+		public void write(DataOutputStream output) throws IOException {
+			output.writeUTF(rootPaths);
+			output.writeInt(fileCount);
+			output.writeLong(lastModified);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Fingerprint)) {
+				return false;
+			}
+
+			Fingerprint other = (Fingerprint) object;
+			return rootPaths.equals(other.rootPaths) && fileCount == other.fileCount && lastModified == other.lastModified;
+		}
+
+		@Override
+		public int hashCode() {
+			return rootPaths.hashCode() + 31 * (fileCount + 31 * (int) (lastModified ^ (lastModified >>> 32)));
+		}
+
+	}
+
+}
@@ -25,13 +25,15 @@ import static org.omnifaces.util.ResourcePaths.getExtension;
 import static org.omnifaces.util.ResourcePaths.isExtensionless;
 import static org.omnifaces.util.ResourcePaths.stripExtension;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.faces.application.ViewHandler;
 import javax.faces.application.ViewHandlerWrapper;
 import javax.faces.context.FacesContext;
+import javax.servlet.ServletContext;
 
 /**
  * View handler that renders an action URL extensionless if a resource is a mapped one, and faces views has been set to always
@@ -46,32 +48,83 @@ import javax.faces.context.FacesContext;
 public class FacesViewsViewHandler extends ViewHandlerWrapper {
 
 	private final ViewHandler wrapped;
+	private final ConcurrentMap<String, ActionURL> actionURLs = new ConcurrentHashMap<>();
+	private volatile ViewHandlerMode viewHandlerMode;
+	private volatile boolean scannedViewsAlwaysExtensionless;
 
 	public FacesViewsViewHandler(ViewHandler viewHandler) {
 		wrapped = viewHandler;
 	}
 
+	/**
+	 * Construct the view handler and resolve the init-derived settings from the given servlet context at once.
+	 * @param viewHandler The parent view handler.
+	 * @param servletContext The involved servlet context.
+	 * @since 2.1
+	 */
+	public FacesViewsViewHandler(ViewHandler viewHandler, ServletContext servletContext) {
+		this(viewHandler);
+		init(servletContext);
+	}
+
+	private void init(ServletContext servletContext) {
+		scannedViewsAlwaysExtensionless = isScannedViewsAlwaysExtensionless(servletContext);
+		viewHandlerMode = getViewHandlerMode(servletContext);
+	}
+
 	@Override
 	public String getActionURL(FacesContext context, String viewId) {
 
 		String actionURL = super.getActionURL(context, viewId);
 
+		if (viewHandlerMode == null) {
+			init(getServletContext(context));
+		}
+
 		Map<String, String> mappedResources = getApplicationAttribute(context, FACES_VIEWS_RESOURCES);
-		if (mappedResources.containsKey(viewId) && (isScannedViewsAlwaysExtensionless(context) || isOriginalViewExtensionless(context))) {
+		if (mappedResources.containsKey(viewId) && (scannedViewsAlwaysExtensionless || isOriginalViewExtensionless(context))) {
 
 			// User has requested to always render extensionless, or the requested viewId was mapped and the current
 			// request is extensionless; render the action URL extensionless as well.
+			return getExtensionlessActionURL(context, viewId, actionURL);
+		}
 
-			switch (getViewHandlerMode(getServletContext(context))) {
+		// Not a resource we mapped or not a forwarded one, take the version from the parent view handler
+		return actionURL;
+	}
+
+	/**
+	 * Returns the extensionless version of the given action URL of the given view ID. The part before the query string
+	 * is memoized per view ID for as long as the parent view handler returns the same part for the view ID, so only the
+	 * query string (if any) needs to be appended.
+	 */
+	private String getExtensionlessActionURL(FacesContext context, String viewId, String actionURL) {
+		int queryStart = actionURL.indexOf('?');
+		int pathLength = (queryStart != -1) ? queryStart : actionURL.length();
+		ActionURL cached = actionURLs.get(viewId);
+
+		if (cached == null || !cached.matches(actionURL, pathLength)) {
+			String path = actionURL.substring(0, pathLength);
+
+			switch (viewHandlerMode) {
 				case STRIP_EXTENSION_FROM_PARENT:
-					return removeExtension(context, actionURL, viewId);
+					cached = new ActionURL(path, removeExtension(context, path, viewId));
+					break;
 				case BUILD_WITH_PARENT_QUERY_PARAMETERS:
-					return getRequestContextPath(context) + stripExtension(viewId) + getQueryParameters(actionURL);
+				default:
+					cached = new ActionURL(path, getRequestContextPath(context) + stripExtension(viewId));
+					break;
 			}
+
+			actionURLs.put(viewId, cached);
 		}
 
-		// Not a resource we mapped or not a forwarded one, take the version from the parent view handler
-		return actionURL;
+		if (queryStart == -1) {
+			return cached.extensionlessPath;
+		}
+
+		return new StringBuilder(cached.extensionlessPath.length() + actionURL.length() - queryStart)
+			.append(cached.extensionlessPath).append(actionURL, queryStart, actionURL.length()).toString();
 	}
 
 	private boolean isOriginalViewExtensionless(FacesContext context) {
@@ -85,28 +138,38 @@ public class FacesViewsViewHandler extends ViewHandlerWrapper {
 
 	public String removeExtension(FacesContext context, String resource, String viewId) {
 
+		int lastSlashPos = resource.lastIndexOf('/');
+		int lastQuestionMarkPos = resource.lastIndexOf('?'); // so we don't remove "extension" from parameter value
+
 		Set<String> extensions = getFacesServletExtensions(context);
+		for (String extension : extensions) {
+			String extensionlessResource = removeExtension(resource, extension, lastSlashPos, lastQuestionMarkPos);
+			if (extensionlessResource != null) {
+				return extensionlessResource;
+			}
+		}
 
 		if (!isExtensionless(viewId)) {
 			String viewIdExtension = getExtension(viewId);
 			if (!extensions.contains(viewIdExtension)) {
-				extensions = new HashSet<>(extensions);
-				extensions.add(viewIdExtension);
+				String extensionlessResource = removeExtension(resource, viewIdExtension, lastSlashPos, lastQuestionMarkPos);
+				if (extensionlessResource != null) {
+					return extensionlessResource;
+				}
 			}
 		}
 
-		int lastSlashPos = resource.lastIndexOf('/');
-		int lastQuestionMarkPos = resource.lastIndexOf('?'); // so we don't remove "extension" from parameter value
-		for (String extension : extensions) {
-
-			int extensionPos = resource.lastIndexOf(extension);
-			if (extensionPos > lastSlashPos && (lastQuestionMarkPos == -1 || extensionPos < lastQuestionMarkPos)) {
-				return resource.substring(0, extensionPos) + resource.substring(extensionPos + extension.length());
-			}
+		return resource;
+	}
 
+	private static String removeExtension(String resource, String extension, int lastSlashPos, int lastQuestionMarkPos) {
+		int extensionPos = resource.lastIndexOf(extension);
+		if (extensionPos > lastSlashPos && (lastQuestionMarkPos == -1 || extensionPos < lastQuestionMarkPos)) {
+			return new StringBuilder(resource.length() - extension.length())
+				.append(resource, 0, extensionPos).append(resource, extensionPos + extension.length(), resource.length()).toString();
 		}
 
-		return resource;
+		return null;
 	}
 
 	/**
@@ -130,4 +193,23 @@ public class FacesViewsViewHandler extends ViewHandlerWrapper {
 		return wrapped;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * A memoized extensionless action URL, along with the parent action URL it was derived from.
+	 */
+	private static final class ActionURL {
+
+		private final String path;
+		private final String extensionlessPath;
+
+		public ActionURL(String path, String extensionlessPath) {
+			this.path = path;
+			this.extensionlessPath = extensionlessPath;
+		}
+
+		public boolean matches(String actionURL, int pathLength) {
+			return path.length() == pathLength && actionURL.startsWith(path);
+		}
+
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.facesviews;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Collections.unmodifiableMap;
+import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_RESOURCES;
+import static org.omnifaces.facesviews.FacesViews.FACES_VIEWS_REVERSE_RESOURCES;
+import static org.omnifaces.facesviews.FacesViews.canScanDirectory;
+import static org.omnifaces.facesviews.FacesViews.collectView;
+import static org.omnifaces.facesviews.FacesViews.getScanRoots;
+import static org.omnifaces.facesviews.FacesViews.scanViews;
+import static org.omnifaces.util.Utils.reverse;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContext;
+
+import org.omnifaces.facesviews.FacesViews.ScanRoot;
+import org.omnifaces.util.Callback;
+import org.omnifaces.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * Keeps the FacesViews resources up to date in development stage, so that views which are added or removed while the
+ * application is running are picked up without rescanning all root paths on every request for an unknown view.
+ * <p>
+ * All directories being scanned are registered with a {@link WatchService} when they are available as a real path on
+ * disk, i.e. when the application is deployed as an exploded WAR. Created and deleted files and directories are then
+ * applied incrementally to the resources. Only when there is a directory which is not available on disk, or when the
+ * watch service reports that events were lost, a full rescan is performed on a request for an unknown view. This
+ * rescan is debounced, and requests for the same unknown view do not trigger another rescan until the last one is
+ * older than {@link #NEGATIVE_LOOKUP_TTL}.
+ * <p>
+ * This does not use a background thread; pending watch events are processed on every request via
+ * {@link #getResources()}, which is cheap when there are no pending events, and a full rescan can only be triggered via
+ * {@link #getResources(String)} on requests for unknown views.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see FacesViewsForwardingFilter
+ */
+final class FacesViewsWatcher {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final Logger logger = Logger.getLogger(FacesViewsWatcher.class.getName());
+
+	/** The minimum time in milliseconds between two full rescans. */
+	private static final long DEBOUNCE_INTERVAL = 500;
+
+	/** The time in milliseconds during which a repeated request for the same unknown view doesn't trigger a rescan. */
+	private static final long NEGATIVE_LOOKUP_TTL = 5000;
+
+	private static final int MAX_NEGATIVE_LOOKUPS = 1000;
+
+	private static final String LOG_WATCH_FAILED = "FacesViews: cannot watch '%s' for changes; falling back to rescanning.";
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final ServletContext servletContext;
+	private final Map<WatchKey, List<WatchedDirectory>> watchedDirectories = new HashMap<>();
+	private final ConcurrentMap<String, Boolean> negativeLookups = new ConcurrentLinkedHashMap.Builder<String, Boolean>()
+		.maximumWeightedCapacity(MAX_NEGATIVE_LOOKUPS)
+		.build();
+
+	private volatile WatchService watchService;
+	private boolean rescanNeeded;
+	private volatile long lastScanTime;
+	private volatile Map<String, String> resources;
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Construct the watcher for the given servlet context and perform the initial scan.
+	 * @param servletContext The involved servlet context.
+	 */
+	public FacesViewsWatcher(ServletContext servletContext) {
+		this.servletContext = servletContext;
+
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+		}
+		catch (IOException | UnsupportedOperationException e) {
+			logger.log(Level.FINE, "FacesViews: watch service is not available; falling back to rescanning.", e);
+		}
+
+		synchronized (this) {
+			scan();
+		}
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the FacesViews resources after applying pending changes, if any. This doesn't perform a full rescan.
+	 * When there are no pending changes, this doesn't acquire any lock.
+	 * @return The FacesViews resources, possibly updated.
+	 */
+	public Map<String, String> getResources() {
+		WatchService service = watchService;
+
+		if (service == null) {
+			return resources;
+		}
+
+		WatchKey key;
+
+		try {
+			key = service.poll();
+		}
+		catch (ClosedWatchServiceException e) {
+			return resources;
+		}
+
+		if (key == null) {
+			return resources;
+		}
+
+		synchronized (this) {
+			processEvents(key);
+			return resources;
+		}
+	}
+
+	/**
+	 * Returns the FacesViews resources which are to be used for the given unknown resource. Pending changes are applied
+	 * first, and if necessary and not debounced, a full rescan is performed.
+	 * @param resource The resource which is not available in the currently known resources.
+	 * @return The FacesViews resources, possibly updated.
+	 */
+	public synchronized Map<String, String> getResources(String resource) {
+		processEvents(null);
+
+		if (resources.containsKey(resource) || !rescanNeeded) {
+			return resources;
+		}
+
+		long now = System.currentTimeMillis();
+		long sinceLastScan = now - lastScanTime;
+
+		if (sinceLastScan < DEBOUNCE_INTERVAL || (sinceLastScan < NEGATIVE_LOOKUP_TTL && negativeLookups.containsKey(resource))) {
+			negativeLookups.put(resource, Boolean.TRUE);
+			return resources;
+		}
+
+		scan();
+
+		if (!resources.containsKey(resource)) {
+			negativeLookups.put(resource, Boolean.TRUE);
+		}
+
+		return resources;
+	}
+
+	/**
+	 * Close the watch service, if any.
+	 */
+	public synchronized void close() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			}
+			catch (IOException e) {
+				logger.log(Level.FINE, "FacesViews: cannot close watch service.", e);
+			}
+
+			watchService = null;
+		}
+
+		watchedDirectories.clear();
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Scan all root paths from scratch, (re)register all directories and publish the resources.
+	 */
+	private void scan() {
+		Set<WatchKey> previousKeys = new HashSet<>(watchedDirectories.keySet());
+		watchedDirectories.clear();
+		rescanNeeded = false;
+		Map<String, String> collectedViews = new HashMap<>();
+
+		for (ScanRoot scanRoot : getScanRoots(servletContext)) {
+			scan(scanRoot.path, scanRoot.extensionToScan, scanRoot.path, collectedViews);
+		}
+
+		previousKeys.removeAll(watchedDirectories.keySet());
+
+		for (WatchKey key : previousKeys) {
+			key.cancel(); // Directory is not scanned anymore.
+		}
+
+		lastScanTime = System.currentTimeMillis();
+		publish(collectedViews);
+	}
+
+	/**
+	 * Scan the given directory recursively via {@link FacesViews#scanViews(ServletContext, String, Set, Map, String, Set)}
+	 * and register it and all of its scanned sub directories.
+	 */
+	private void scan(final String rootPath, final String extensionToScan, String directory, Map<String, String> collectedViews) {
+		register(new WatchedDirectory(rootPath, extensionToScan, directory));
+		scanViews(servletContext, rootPath, servletContext.getResourcePaths(directory), collectedViews, extensionToScan, null,
+			new Callback.WithArgument<String>() {
+				@Override
+				public void invoke(String subDirectory) {
+					register(new WatchedDirectory(rootPath, extensionToScan, subDirectory));
+				}
+			}
+		);
+	}
+
+	private void register(WatchedDirectory directory) {
+		String realPath = servletContext.getRealPath(directory.path);
+
+		if (watchService == null || realPath == null || !Files.isDirectory(Paths.get(realPath))) {
+			rescanNeeded = true;
+			return;
+		}
+
+		try {
+			directory.realPath = Paths.get(realPath);
+			WatchKey key = directory.realPath.register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+			List<WatchedDirectory> directories = watchedDirectories.get(key);
+
+			if (directories == null) {
+				directories = new ArrayList<>(1);
+				watchedDirectories.put(key, directories);
+			}
+
+			directories.add(directory);
+		}
+		catch (IOException e) {
+			logger.log(Level.FINE, String.format(LOG_WATCH_FAILED, realPath), e);
+			rescanNeeded = true;
+		}
+	}
+
+	/**
+	 * Apply the given watch key, if any, and all other pending watch events on the currently known resources, and
+	 * publish them if anything has changed.
+	 */
+	private void processEvents(WatchKey polledKey) {
+		if (watchService == null) {
+			return;
+		}
+
+		Map<String, String> collectedViews = null;
+
+		for (WatchKey key = (polledKey != null) ? polledKey : watchService.poll(); key != null; key = watchService.poll()) {
+			List<WatchedDirectory> directories = watchedDirectories.get(key);
+
+			if (directories == null) {
+				key.pollEvents(); // Directory is not scanned anymore.
+				continue;
+			}
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					rescanNeeded = true;
+					continue;
+				}
+
+				if (collectedViews == null) {
+					collectedViews = new HashMap<>(resources);
+				}
+
+				String name = event.context().toString();
+
+				for (WatchedDirectory directory : directories) {
+					String resourcePath = directory.path + name;
+
+					if (event.kind() == ENTRY_DELETE) {
+						removeViews(resourcePath, collectedViews);
+					}
+					else if (Files.isDirectory(directory.realPath.resolve(name))) {
+						if (canScanDirectory(directory.rootPath, resourcePath + "/")) {
+							scan(directory.rootPath, directory.extensionToScan, resourcePath + "/", collectedViews);
+						}
+					}
+					else {
+						collectView(directory.rootPath, resourcePath, collectedViews, directory.extensionToScan, null);
+					}
+				}
+			}
+
+			if (!key.reset()) {
+				watchedDirectories.remove(key); // Directory is deleted.
+			}
+		}
+
+		if (collectedViews != null && !collectedViews.equals(resources)) {
+			publish(collectedViews);
+		}
+	}
+
+	/**
+	 * Remove all views backed by the given resource path, or by any resource below it in case it was a directory.
+	 */
+	private static void removeViews(String resourcePath, Map<String, String> collectedViews) {
+		String directoryPath = resourcePath + "/";
+
+		for (Iterator<Entry<String, String>> iterator = collectedViews.entrySet().iterator(); iterator.hasNext();) {
+			String view = iterator.next().getValue();
+
+			if (view.equals(resourcePath) || view.startsWith(directoryPath)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Publish the given resources in the servlet context and invalidate the negative lookups. Unlike
+	 * {@link FacesViews#scanAndStoreViews(ServletContext)}, this also publishes an empty map, so that views which are
+	 * all deleted don't stay available.
+	 */
+	private void publish(Map<String, String> collectedViews) {
+		resources = unmodifiableMap(collectedViews);
+		negativeLookups.clear();
+		servletContext.setAttribute(FACES_VIEWS_RESOURCES, resources);
+		servletContext.setAttribute(FACES_VIEWS_REVERSE_RESOURCES, unmodifiableMap(reverse(collectedViews)));
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * A scanned directory, along with the root path and the extension it was scanned for.
+	 */
+	private static final class WatchedDirectory {
+
+		private final String rootPath;
+		private final String extensionToScan;
+		private final String path;
+		private Path realPath;
+
+		public WatchedDirectory(String rootPath, String extensionToScan, String path) {
+			this.rootPath = rootPath;
+			this.extensionToScan = extensionToScan;
+			this.path = path;
+		}
+
+	}
+
+}
@@ -233,6 +233,15 @@
  * </td>
  * </tr>
  *
+ * <tr>
+ * <td class="colFirst"><code>{@value org.omnifaces.facesviews.FacesViews#FACES_VIEWS_SCAN_INDEX_PARAM_NAME}</code></td>
+ * <td>Used to set whether the scanned views should be saved in an index file in the work directory of the web application, so that
+ * they don't need to be scanned again on the next startup. The index is only used when the scanned paths are available on disk
+ * (exploded WAR), and it is validated against the amount of files and their most recent last modified time.
+ * <br>Default value: <code>false</code>
+ * </td>
+ * </tr>
+ *
  * </table>
  *
  * <h3>Servlet 2.5 compatibility</h3>
@@ -12,14 +12,23 @@
  */
 package org.omnifaces.filter;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.omnifaces.util.Servlets.getRequestURIWithQueryString;
 import static org.omnifaces.util.Servlets.isFacesDevelopment;
 import static org.omnifaces.util.Servlets.isFacesResourceRequest;
+import static org.omnifaces.util.Utils.formatRFC1123;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -27,7 +36,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.omnifaces.servlet.HttpServletResponseOutputWrapper;
 import org.omnifaces.util.Servlets;
+import org.omnifaces.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 
 /**
  * <p>
@@ -129,6 +140,36 @@ import org.omnifaces.util.Servlets;
  * &lt;/filter-mapping&gt;
  * </pre>
  * <p>
+ * This filter also supports the <code>etag</code> initialization parameter which can be set to <code>true</code> in
+ * order to let the filter generate <code>ETag</code> and <code>Last-Modified</code> headers on <code>GET</code>
+ * requests of pages, based on a checksum of the buffered response body. When the client performs a
+ * conditional GET request with a matching <code>If-None-Match</code> or <code>If-Modified-Since</code> header, then the
+ * filter will respond with HTTP status 304 ("not modified") without the response body. This is only effective when
+ * the <code>expires</code> init param represents a time larger than 0 seconds, and it requires that the page doesn't
+ * flush the response before it has completed. The default value is <code>false</code>.
+ * <p>
+ * The ETag is tracked per request URI, shared by all users, so this is only suitable for static or stateless pages
+ * whose response body is the same for everyone. On personalized pages, the ETag and thus the
+ * <code>Last-Modified</code> header would change on every request by a different user, and the conditional GET request
+ * would rarely match. Pages containing a stateful <code>javax.faces.ViewState</code> hidden field, i.e. pages with a
+ * non-transient <code>&lt;h:form&gt;</code>, render a different view state on every request, and it is not desired
+ * to let the client reuse a cached view state anyway. Therefore, when such a page is encountered, the filter will not
+ * generate an ETag for it, and it will not buffer the subsequent responses of the same request URI anymore.
+ * <pre>
+ * &lt;filter&gt;
+ *     &lt;filter-name&gt;cache10secondsWithETag&lt;/filter-name&gt;
+ *     &lt;filter-class&gt;org.omnifaces.filter.CacheControlFilter&lt;/filter-class&gt;
+ *     &lt;init-param&gt;
+ *         &lt;param-name&gt;expires&lt;/param-name&gt;
+ *         &lt;param-value&gt;10s&lt;/param-value&gt;
+ *     &lt;/init-param&gt;
+ *     &lt;init-param&gt;
+ *         &lt;param-name&gt;etag&lt;/param-name&gt;
+ *         &lt;param-value&gt;true&lt;/param-value&gt;
+ *     &lt;/init-param&gt;
+ * &lt;/filter&gt;
+ * </pre>
+ * <p>
  * Note: put the more specific URL patterns in the end of filter mappings. Due to the way how filters work, there's
  * unfortunately no simple way to skip the filter on <code>/*</code> when e.g. <code>*.pdf</code> is matched. You can
  * always map the no cache filter specifically to <code>FacesServlet</code> if you intend to disable caching on
@@ -155,6 +196,12 @@ import org.omnifaces.util.Servlets;
  * <li><code>Expires: [expiration date of 0]</code></li>
  * <li><code>Pragma: no-cache</code></li>
  * </ul>
+ * <p>If the <code>etag</code> init param is set to <code>true</code> and caching is enabled, then the following headers
+ * will additionally be set on successful page responses:
+ * <ul>
+ * <li><code>ETag: W/"[checksum of response body]-[length of response body]"</code></li>
+ * <li><code>Last-Modified: [date on which this filter has first seen the current ETag of the page]</code></li>
+ * </ul>
  *
  * <h3>JSF development stage</h3>
  * <p>To speed up development, caching by this filter is <strong>disabled</strong> when JSF project stage is set to
@@ -168,8 +215,27 @@ public class CacheControlFilter extends HttpFilter {
 	// Constants ------------------------------------------------------------------------------------------------------
 
 	private static final String INIT_PARAM_EXPIRES = "expires";
+	private static final String INIT_PARAM_ETAG = "etag";
 	private static final long DEFAULT_EXPIRES = 0;
 	private static final long DAYS_PER_WEEK = 7;
+	private static final int MAX_TRACKED_ETAGS = 1000;
+	private static final byte[] VIEW_STATE_PARAM = "javax.faces.ViewState".getBytes(US_ASCII);
+	private static final byte[] INPUT_START = "<input".getBytes(US_ASCII);
+	private static final byte[] VALUE_ATTRIBUTE_START = "value=\"".getBytes(US_ASCII);
+	private static final byte[] STATELESS_VALUE = "stateless\"".getBytes(US_ASCII);
+
+	/** Marks a request URI whose response is not cacheable by ETag, so that it won't be buffered anymore. */
+	private static final ETag NOT_CACHEABLE = new ETag(null, 0);
+
+	/** The checksums are reused per thread, so that no new one needs to be created for every request. */
+	private static final ThreadLocal<CRC32> CHECKSUMS = new ThreadLocal<CRC32>() {
+		@Override
+		protected CRC32 initialValue() {
+			return new CRC32();
+		}
+	};
+	private static final String NO_CACHE_CONTROL = "no-cache,no-store,must-revalidate";
+	private static final String NO_CACHE_EXPIRES = formatRFC1123(new Date(0));
 	private static final String ERROR_EXPIRES = "The 'expires' init param must be a number between 0 and 999999999 with"
 		+ " optionally the 'w', 'd', 'h', 'm' or 's' suffix. For example: '6w' is 6 weeks. Default suffix is 's' for"
 		+ " seconds. For example: '86400' is 86400 seconds. Encountered an invalid value of '%s'.";
@@ -188,14 +254,20 @@ public class CacheControlFilter extends HttpFilter {
 		}
 	}
 
+	// Static vars ----------------------------------------------------------------------------------------------------
+
+	private static volatile CachedHttpDate cachedExpires = new CachedHttpDate(0, NO_CACHE_EXPIRES);
+
 	// Vars -----------------------------------------------------------------------------------------------------------
 
 	private long expires = DEFAULT_EXPIRES;
+	private String cacheControl = NO_CACHE_CONTROL;
+	private ConcurrentMap<String, ETag> etags;
 
 	// Actions --------------------------------------------------------------------------------------------------------
 
 	/**
-	 * Initialize the <code>expires</code> parameter.
+	 * Initialize the <code>expires</code> and <code>etag</code> parameters and precompute the header values.
 	 */
 	@Override
 	public void init() throws ServletException {
@@ -220,23 +292,123 @@ public class CacheControlFilter extends HttpFilter {
 
 			expires = number;
 		}
+
+		if (expires > 0) {
+			cacheControl = createCacheControl(expires);
+
+			if (Boolean.valueOf(getInitParameter(INIT_PARAM_ETAG))) {
+				etags = new ConcurrentLinkedHashMap.Builder<String, ETag>()
+					.maximumWeightedCapacity(MAX_TRACKED_ETAGS)
+					.build();
+			}
+		}
 	}
 
 	/**
-	 * Set the necessary response headers based on <code>expires</code> initialization parameter.
+	 * Set the necessary response headers based on <code>expires</code> initialization parameter. If the
+	 * <code>etag</code> initialization parameter is enabled, then also handle the conditional GET request.
 	 */
 	@Override
 	public void doFilter
-		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+		(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException
 	{
-		if (!isFacesResourceRequest(request)) {
-			setCacheHeaders(response, expires);
+		if (isFacesResourceRequest(request)) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (expires > 0) {
+			response.setHeader("Cache-Control", cacheControl);
+			response.setHeader("Expires", getExpires(expires));
+			response.setHeader("Pragma", ""); // Explicitly set pragma to prevent container from overriding it.
+		}
+		else {
+			setNoCacheHeaders(response);
+		}
+
+		if (etags != null && "GET".equals(request.getMethod())) {
+			String key = getRequestURIWithQueryString(request);
+
+			if (etags.get(key) != NOT_CACHEABLE) {
+				doFilterWithETag(request, response, chain, key);
+				return;
+			}
 		}
 
 		chain.doFilter(request, response);
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as setting the cache
+	 * headers doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
+	/**
+	 * Buffer the response body, compute the ETag based on its checksum and then either respond with 304 or write the
+	 * buffered response body to the response.
+	 */
+	private void doFilterWithETag(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String key)
+		throws ServletException, IOException
+	{
+		ETagHttpServletResponse etagResponse = new ETagHttpServletResponse(request, response);
+		chain.doFilter(request, etagResponse);
+		etagResponse.close();
+		ResponseBody body = etagResponse.body;
+
+		if (body == null || response.isCommitted() || etagResponse.getStatus() != HttpServletResponse.SC_OK) {
+			writeBody(response, body);
+			return;
+		}
+
+		if (body.containsStatefulViewState()) {
+			etags.put(key, NOT_CACHEABLE);
+			writeBody(response, body);
+			return;
+		}
+
+		ETag etag = getETag(key, body);
+		response.setHeader("ETag", etag.value);
+		response.setDateHeader("Last-Modified", etag.lastModified);
+
+		if (etag.matches(request)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		}
+		else {
+			response.setContentLength(body.size());
+			writeBody(response, body);
+		}
+	}
+
+	/**
+	 * Returns the ETag of the given response body for the given key. If the ETag value is unchanged since last time,
+	 * then the previously tracked ETag will be returned, so that the last modified timestamp is retained.
+	 */
+	private ETag getETag(String key, ResponseBody body) {
+		String value = "W/\"" + Long.toHexString(body.getChecksum()) + "-" + Integer.toHexString(body.size()) + "\"";
+		ETag etag = etags.get(key);
+
+		if (etag == null || !value.equals(etag.value)) {
+			etag = new ETag(value, System.currentTimeMillis());
+			etags.put(key, etag);
+		}
+
+		return etag;
+	}
+
+	private static void writeBody(HttpServletResponse response, ResponseBody body) throws IOException {
+		if (body != null && body.size() > 0) {
+			body.writeTo(response.getOutputStream());
+		}
+	}
+
 	/**
 	 * <p>Set the cache headers. If the <code>expires</code> argument is larger than 0 seconds, then the following headers
 	 * will be set:
@@ -250,8 +422,8 @@ public class CacheControlFilter extends HttpFilter {
 	 */
 	public static void setCacheHeaders(HttpServletResponse response, long expires) {
 		if (expires > 0) {
-			response.setHeader("Cache-Control", "public,max-age=" + expires + ",must-revalidate");
-			response.setDateHeader("Expires", System.currentTimeMillis() + SECONDS.toMillis(expires));
+			response.setHeader("Cache-Control", createCacheControl(expires));
+			response.setHeader("Expires", getExpires(expires));
 			response.setHeader("Pragma", ""); // Explicitly set pragma to prevent container from overriding it.
 		}
 		else {
@@ -270,9 +442,203 @@ public class CacheControlFilter extends HttpFilter {
 	 * @param response The HTTP servlet response to set the headers on.
 	 */
 	public static void setNoCacheHeaders(HttpServletResponse response) {
-		response.setHeader("Cache-Control", "no-cache,no-store,must-revalidate");
-		response.setDateHeader("Expires", 0);
+		response.setHeader("Cache-Control", NO_CACHE_CONTROL);
+		response.setHeader("Expires", NO_CACHE_EXPIRES);
 		response.setHeader("Pragma", "no-cache"); // Backwards compatibility for HTTP 1.0.
 	}
 
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	private static String createCacheControl(long expires) {
+		return "public,max-age=" + expires + ",must-revalidate";
+	}
+
+	/**
+	 * Returns the <code>Expires</code> header value of now plus the given expire time in seconds. As the header value
+	 * has only a resolution of seconds, the formatted date of the current second is cached for reuse by all requests
+	 * during the same second.
+	 */
+	private static String getExpires(long expires) {
+		long second = SECONDS.convert(System.currentTimeMillis(), MILLISECONDS) + expires;
+		CachedHttpDate cached = cachedExpires;
+
+		if (cached.second != second) {
+			cached = new CachedHttpDate(second, formatRFC1123(new Date(SECONDS.toMillis(second))));
+			cachedExpires = cached;
+		}
+
+		return cached.value;
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * Immutable holder of a formatted HTTP date of a specific second.
+	 */
+	private static final class CachedHttpDate {
+
+		private final long second;
+		private final String value;
+
+		public CachedHttpDate(long second, String value) {
+			this.second = second;
+			this.value = value;
+		}
+
+	}
+
+	/**
+	 * This HTTP servlet response buffers the entire response body in a {@link ResponseBody}.
+	 */
+	private static final class ETagHttpServletResponse extends HttpServletResponseOutputWrapper {
+
+		private ResponseBody body;
+
+		public ETagHttpServletResponse(HttpServletRequest request, HttpServletResponse response) {
+			super(request, response);
+		}
+
+		@Override
+		protected OutputStream createOutputStream() {
+			if (body == null) {
+				body = new ResponseBody(getEstimatedResponseSize());
+			}
+
+			return body;
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+
+			if (body != null) {
+				body.reset();
+			}
+		}
+
+	}
+
+	/**
+	 * The buffered response body, which gives access to the buffered bytes without copying them.
+	 */
+	private static final class ResponseBody extends ByteArrayOutputStream {
+
+		public ResponseBody(int size) {
+			super(size);
+		}
+
+		/**
+		 * Returns the CRC32 checksum of the buffered bytes.
+		 */
+		public long getChecksum() {
+			CRC32 checksum = CHECKSUMS.get();
+			checksum.reset();
+			checksum.update(buf, 0, count);
+			return checksum.getValue();
+		}
+
+		/**
+		 * Returns whether the buffered bytes contain a <code>javax.faces.ViewState</code> hidden input field whose value
+		 * is not <code>stateless</code>.
+		 */
+		public boolean containsStatefulViewState() {
+			for (int i = indexOf(VIEW_STATE_PARAM, 0, count); i != -1; i = indexOf(VIEW_STATE_PARAM, i + 1, count)) {
+				int tagStart = lastIndexOf((byte) '<', i);
+				int tagEnd = indexOf((byte) '>', i);
+
+				if (tagStart == -1 || tagEnd == -1 || !startsWith(INPUT_START, tagStart)) {
+					continue;
+				}
+
+				int valueStart = indexOf(VALUE_ATTRIBUTE_START, tagStart, tagEnd);
+
+				if (valueStart != -1 && !startsWith(STATELESS_VALUE, valueStart + VALUE_ATTRIBUTE_START.length)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private int indexOf(byte[] bytes, int from, int to) {
+			for (int i = from; i <= to - bytes.length; i++) {
+				if (startsWith(bytes, i)) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		private int indexOf(byte b, int from) {
+			for (int i = from; i < count; i++) {
+				if (buf[i] == b) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		private int lastIndexOf(byte b, int from) {
+			for (int i = from; i >= 0; i--) {
+				if (buf[i] == b) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		private boolean startsWith(byte[] bytes, int offset) {
+			if (offset + bytes.length > count) {
+				return false;
+			}
+
+			for (int i = 0; i < bytes.length; i++) {
+				if (buf[offset + i] != bytes[i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+	}
+
+	/**
+	 * Immutable holder of an ETag value and the timestamp on which it was first seen.
+	 */
+	private static final class ETag {
+
+		private final String value;
+		private final long lastModified;
+
+		public ETag(String value, long lastModified) {
+			this.value = value;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Returns whether the given conditional GET request matches this ETag. The <code>If-None-Match</code> header
+		 * takes precedence over the <code>If-Modified-Since</code> header.
+		 */
+		public boolean matches(HttpServletRequest request) {
+			String ifNoneMatch = request.getHeader("If-None-Match");
+
+			if (ifNoneMatch != null) {
+				return "*".equals(ifNoneMatch.trim()) || ifNoneMatch.contains(value);
+			}
+
+			try {
+				long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+				return ifModifiedSince != -1 && ifModifiedSince + SECONDS.toMillis(1) > lastModified; // RFC1123 doesn't store millis.
+			}
+			catch (IllegalArgumentException ignore) {
+				return false;
+			}
+		}
+
+	}
+
 }
\ No newline at end of file
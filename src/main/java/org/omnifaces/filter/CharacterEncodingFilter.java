@@ -112,7 +112,7 @@ public class CharacterEncodingFilter extends HttpFilter {
 	 */
 	@Override
 	public void doFilter
-		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+		(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException
 	{
 		if (request.getCharacterEncoding() == null) {
@@ -122,4 +122,16 @@ public class CharacterEncodingFilter extends HttpFilter {
 		chain.doFilter(request, response);
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as setting the request
+	 * character encoding doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
 }
\ No newline at end of file
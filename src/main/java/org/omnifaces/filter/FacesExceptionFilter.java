@@ -56,7 +56,7 @@ public class FacesExceptionFilter extends HttpFilter {
 
 	@Override
 	public void doFilter
-		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+		(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException
 	{
 		try {
@@ -70,4 +70,16 @@ public class FacesExceptionFilter extends HttpFilter {
 		}
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as handling the exception
+	 * doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
 }
\ No newline at end of file
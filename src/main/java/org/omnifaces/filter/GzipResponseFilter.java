@@ -165,11 +165,11 @@ public class GzipResponseFilter extends HttpFilter {
 	 */
 	@Override
 	public void doFilter
-		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+		(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException
 	{
 		if (acceptsGzip(request)) {
-			GzipHttpServletResponse gzipResponse = new GzipHttpServletResponse(response, threshold, mimetypes);
+			GzipHttpServletResponse gzipResponse = new GzipHttpServletResponse(request, response, threshold, mimetypes);
 			chain.doFilter(request, gzipResponse);
 			gzipResponse.close(); // Mandatory for the case the threshold limit hasn't been reached.
 		}
@@ -178,6 +178,18 @@ public class GzipResponseFilter extends HttpFilter {
 		}
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as compressing the response
+	 * doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
 	// Helpers --------------------------------------------------------------------------------------------------------
 
 	/**
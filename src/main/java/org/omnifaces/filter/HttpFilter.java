@@ -38,6 +38,20 @@ import javax.servlet.http.HttpSession;
  * <p>
  * It's a bit the idea of using the convenient {@link HttpServlet} abstract servlet class instead of the barebones
  * {@link Servlet} interface.
+ * <p>
+ * Obtaining the HTTP session may be expensive, e.g. on clustered containers where it may involve fetching it from a
+ * distributed store. If the filter does not need the HTTP session, or needs it only conditionally, then additionally
+ * override {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}. The HTTP session will then not be
+ * obtained beforehand, and the request acts as a lazy session handle: just call
+ * {@link HttpServletRequest#getSession(boolean)} when the session is actually needed. The container will memoize it
+ * for the remainder of the request. The default implementation of that method is an adapter which obtains the session
+ * and delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, HttpSession, FilterChain)}.
+ * <p>
+ * The built-in OmniFaces filters don't need the HTTP session and therefore override the session-less method, while
+ * their session taking method merely delegates to it. If a subclass overrides the session taking method in a more
+ * specific class than the session-less method, then the session will still be obtained beforehand and the session taking
+ * method will be invoked, so that existing subclasses of those filters keep working, also when they invoke
+ * <code>super.doFilter()</code>.
  *
  * <h3>Usage</h3>
  * <p>
@@ -75,6 +89,19 @@ public abstract class HttpFilter implements Filter {
 	// Properties -----------------------------------------------------------------------------------------------------
 
 	private FilterConfig filterConfig;
+	private final boolean sessionTaking;
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Determines once whether the session taking
+	 * {@link #doFilter(HttpServletRequest, HttpServletResponse, HttpSession, FilterChain)} method is overridden in a more
+	 * specific class than the session-less {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}
+	 * method, so that it doesn't need to be determined on every request.
+	 */
+	public HttpFilter() {
+		sessionTaking = isSessionTakingDoFilterMoreSpecific(getClass());
+	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
 
@@ -104,8 +131,34 @@ public abstract class HttpFilter implements Filter {
 	{
 		HttpServletRequest httpRequest = (HttpServletRequest) request;
 		HttpServletResponse httpResponse = (HttpServletResponse) response;
-		HttpSession session = httpRequest.getSession(false);
-		doFilter(httpRequest, httpResponse, session, chain);
+
+		if (sessionTaking) {
+			doFilter(httpRequest, httpResponse, httpRequest.getSession(false), chain);
+		}
+		else {
+			doFilter(httpRequest, httpResponse, chain);
+		}
+	}
+
+	/**
+	 * Filter the HTTP request without obtaining the HTTP session beforehand. The HTTP session can if necessary lazily
+	 * be obtained via {@link HttpServletRequest#getSession(boolean)}. The default implementation obtains the HTTP
+	 * session, if any, and delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, HttpSession,
+	 * FilterChain)}. Override this method as well when the filter doesn't always need the HTTP session. Note that the
+	 * session taking method is then not invoked anymore, unless the override explicitly delegates to it, or unless a
+	 * subclass overrides the session taking method in turn.
+	 * @param request The HTTP request.
+	 * @param response The HTTP response.
+	 * @param chain The filter chain to continue.
+	 * @throws ServletException As wrapper exception when something fails in the request processing.
+	 * @throws IOException Whenever something fails at I/O level.
+	 * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+	 * @since 2.1
+	 */
+	public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+		throws ServletException, IOException
+	{
+		doFilter(request, response, request.getSession(false), chain);
 	}
 
 	/**
@@ -170,4 +223,21 @@ public abstract class HttpFilter implements Filter {
 		}
 	}
 
+	/**
+	 * Returns whether the session taking doFilter() method of the given filter class is declared in a more specific
+	 * class than its session-less doFilter() method.
+	 */
+	private static boolean isSessionTakingDoFilterMoreSpecific(Class<?> filterClass) {
+		try {
+			Class<?> sessionLessClass = filterClass.getMethod("doFilter",
+				HttpServletRequest.class, HttpServletResponse.class, FilterChain.class).getDeclaringClass();
+			Class<?> sessionTakingClass = filterClass.getMethod("doFilter",
+				HttpServletRequest.class, HttpServletResponse.class, HttpSession.class, FilterChain.class).getDeclaringClass();
+			return sessionTakingClass != sessionLessClass && sessionLessClass.isAssignableFrom(sessionTakingClass);
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e); // Can't happen, both are declared in HttpFilter.
+		}
+	}
+
 }
\ No newline at end of file
@@ -46,10 +46,10 @@ public class OnDemandResponseBufferFilter extends HttpFilter {
 	public static final String BUFFERED_RESPONSE = "org.omnifaces.servlet.BUFFERED_RESPONSE";
 
 	@Override
-	public void doFilter(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain) throws ServletException,
+	public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException,
 			IOException {
 
-		BufferedHttpServletResponse bufferedResponse = new BufferedHttpServletResponse(response);
+		BufferedHttpServletResponse bufferedResponse = new BufferedHttpServletResponse(request, response);
 
 		// By default don't buffer, code has to activate this explicitly.
 		bufferedResponse.setPassThrough(true);
@@ -67,4 +67,16 @@ public class OnDemandResponseBufferFilter extends HttpFilter {
 
 	}
 
+	/**
+	 * Delegates to {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)}, as buffering the response
+	 * doesn't need the HTTP session.
+	 */
+	@Override
+	public void doFilter
+		(HttpServletRequest request, HttpServletResponse response, HttpSession session, FilterChain chain)
+			throws ServletException, IOException
+	{
+		doFilter(request, response, chain);
+	}
+
 }
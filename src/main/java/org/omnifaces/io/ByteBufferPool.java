@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of reusable directly allocated NIO {@link ByteBuffer}s of a fixed size. Allocating a direct buffer is
+ * relatively expensive and its memory is only released when the buffer is garbage collected, so allocating one for
+ * every streaming action may cause <code>OutOfMemoryError: Direct buffer memory</code> under high load.
+ * <p>
+ * When the pool is empty, {@link #acquire()} will allocate a new buffer. When the pool is full, {@link #release(ByteBuffer)}
+ * will drop the buffer, leaving it to the garbage collector. Hence the pool never blocks and never holds more than the
+ * given maximum amount of buffers. The metrics are available via the getters, e.g. for exposure in a monitoring page.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ */
+public final class ByteBufferPool {
+
+	// Properties -----------------------------------------------------------------------------------------------------
+
+	private final int bufferSize;
+	private final BlockingQueue<ByteBuffer> pool;
+	private final AtomicLong allocatedCount = new AtomicLong();
+	private final AtomicLong reusedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	/**
+	 * Construct a new pool of direct buffers of the given size, holding at most the given amount of buffers.
+	 * @param bufferSize The size of each buffer in bytes.
+	 * @param maxPooledBuffers The maximum amount of buffers held in the pool.
+	 */
+	public ByteBufferPool(int bufferSize, int maxPooledBuffers) {
+		this.bufferSize = bufferSize;
+		pool = new ArrayBlockingQueue<>(maxPooledBuffers);
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Acquire a cleared buffer from the pool, or allocate a new one if the pool is empty. The caller must
+	 * {@link #release(ByteBuffer)} it after use, preferably in a <code>finally</code> block.
+	 * @return A cleared direct buffer.
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = pool.poll();
+
+		if (buffer == null) {
+			allocatedCount.incrementAndGet();
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+
+		reusedCount.incrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Release the given buffer back into the pool. If the pool is full, then the buffer will be dropped.
+	 * @param buffer The buffer previously obtained by {@link #acquire()}.
+	 */
+	public void release(ByteBuffer buffer) {
+		if (!pool.offer(buffer)) {
+			droppedCount.incrementAndGet();
+		}
+	}
+
+	// Getters --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the size of each buffer in bytes.
+	 * @return The size of each buffer in bytes.
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Returns the amount of buffers currently available in the pool.
+	 * @return The amount of buffers currently available in the pool.
+	 */
+	public int getPooledCount() {
+		return pool.size();
+	}
+
+	/**
+	 * Returns the total amount of buffers allocated because the pool was empty.
+	 * @return The total amount of buffers allocated because the pool was empty.
+	 */
+	public long getAllocatedCount() {
+		return allocatedCount.get();
+	}
+
+	/**
+	 * Returns the total amount of times a buffer was reused from the pool.
+	 * @return The total amount of times a buffer was reused from the pool.
+	 */
+	public long getReusedCount() {
+		return reusedCount.get();
+	}
+
+	/**
+	 * Returns the total amount of buffers dropped because the pool was full.
+	 * @return The total amount of buffers dropped because the pool was full.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ByteBufferPool[bufferSize=%d, pooled=%d, allocated=%d, reused=%d, dropped=%d]",
+			bufferSize, getPooledCount(), getAllocatedCount(), getReusedCount(), getDroppedCount());
+	}
+
+}
@@ -33,6 +33,7 @@ public class ResettableBufferedOutputStream extends OutputStream implements Rese
 	private OutputStream output;
 	private ByteArrayOutputStream buffer;
 	private int bufferSize;
+	private int initialCapacity;
 	private int writtenBytes;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
@@ -44,9 +45,23 @@ public class ResettableBufferedOutputStream extends OutputStream implements Rese
 	 * @param bufferSize The buffer size.
 	 */
 	public ResettableBufferedOutputStream(OutputStream output, int bufferSize) {
+		this(output, bufferSize, bufferSize);
+	}
+
+	/**
+	 * Construct a new resettable buffered output stream which wraps the given output stream and forcibly buffers
+	 * everything until the given buffer size, regardless of flush calls. The buffer will initially be allocated with
+	 * the given initial capacity, which is useful when the expected output is smaller than the buffer size.
+	 * @param output The wrapped output stream .
+	 * @param bufferSize The buffer size.
+	 * @param initialCapacity The initial capacity of the buffer.
+	 * @since 2.1
+	 */
+	public ResettableBufferedOutputStream(OutputStream output, int bufferSize, int initialCapacity) {
 		this.output = output;
 		this.bufferSize = bufferSize;
-		buffer = new ByteArrayOutputStream(bufferSize);
+		this.initialCapacity = initialCapacity;
+		buffer = new ByteArrayOutputStream(initialCapacity);
 	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
@@ -82,7 +97,7 @@ public class ResettableBufferedOutputStream extends OutputStream implements Rese
 
 	@Override
 	public void reset() {
-		buffer = new ByteArrayOutputStream(bufferSize);
+		buffer = new ByteArrayOutputStream(initialCapacity);
 		writtenBytes = 0;
 	}
 
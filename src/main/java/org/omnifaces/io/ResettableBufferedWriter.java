@@ -36,6 +36,7 @@ public class ResettableBufferedWriter extends Writer implements ResettableBuffer
 	private Charset charset;
 	private CharArrayWriter buffer;
 	private int bufferSize;
+	private int initialCapacity;
 	private int writtenBytes;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
@@ -50,10 +51,26 @@ public class ResettableBufferedWriter extends Writer implements ResettableBuffer
 	 * @param characterEncoding The character encoding.
 	 */
 	public ResettableBufferedWriter(Writer writer, int bufferSize, String characterEncoding) {
+		this(writer, bufferSize, bufferSize, characterEncoding);
+	}
+
+	/**
+	 * Construct a new resettable buffered writer which wraps the given writer and forcibly buffers everything until
+	 * the given buffer size in bytes, regardless of flush calls. The buffer will initially be allocated with the given
+	 * initial capacity in characters, which is useful when the expected output is smaller than the buffer size. The
+	 * given character encoding is used to measure the amount of already written bytes in the buffer.
+	 * @param writer The wrapped writer.
+	 * @param bufferSize The buffer size.
+	 * @param initialCapacity The initial capacity of the buffer.
+	 * @param characterEncoding The character encoding.
+	 * @since 2.1
+	 */
+	public ResettableBufferedWriter(Writer writer, int bufferSize, int initialCapacity, String characterEncoding) {
 		this.writer = writer;
 		this.bufferSize = bufferSize;
+		this.initialCapacity = initialCapacity;
 		charset = Charset.forName(characterEncoding);
-		buffer = new CharArrayWriter(bufferSize);
+		buffer = new CharArrayWriter(initialCapacity);
 	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
@@ -79,7 +96,7 @@ public class ResettableBufferedWriter extends Writer implements ResettableBuffer
 
 	@Override
 	public void reset() {
-		buffer = new CharArrayWriter(bufferSize);
+		buffer = new CharArrayWriter(initialCapacity);
 		writtenBytes = 0;
 	}
 
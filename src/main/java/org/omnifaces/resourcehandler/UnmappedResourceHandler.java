@@ -181,16 +181,26 @@ public class UnmappedResourceHandler extends DefaultResourceHandler {
 
 	private static String unmapRequestPath(String path) {
 		String mapping = getMapping();
+		int mappingStart;
 
 		if (isPrefixMapping(mapping)) {
-			return path.replaceFirst(mapping, "");
-		}
-		else if (path.contains("?")) {
-			return path.replace(mapping + "?", "?");
+			mappingStart = path.indexOf(mapping);
 		}
 		else {
-			return path.substring(0, path.length() - mapping.length());
+			int queryStart = path.indexOf('?');
+			mappingStart = ((queryStart != -1) ? queryStart : path.length()) - mapping.length();
+
+			if (mappingStart < 0 || !path.startsWith(mapping, mappingStart)) {
+				mappingStart = -1;
+			}
 		}
+
+		if (mappingStart == -1) {
+			return path;
+		}
+
+		return new StringBuilder(path.length() - mapping.length())
+			.append(path, 0, mappingStart).append(path, mappingStart + mapping.length(), path.length()).toString();
 	}
 
 	private static Resource createResource(FacesContext context) {
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.servlet;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static javax.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
+import static javax.servlet.http.HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.omnifaces.util.Utils;
+
+/**
+ * Sends a file to the response asynchronously, so that the request thread is released while the bytes are being
+ * transferred to the client. This is particularly useful for large downloads to slow clients, which would otherwise
+ * hold a container thread during the whole transfer.
+ * <p>
+ * When running on a Servlet 3.1 container, the file is sent in non-blocking mode via a <code>WriteListener</code>,
+ * which reads the next chunk from the {@link FileChannel} only when the output is ready to accept it. When running on a
+ * Servlet 3.0 container, the file is sent in blocking mode via {@link AsyncContext#start(Runnable)}. When the request
+ * does not support async processing at all, e.g. because the <code>FacesServlet</code> or one of the filters in the
+ * chain is not configured with <code>&lt;async-supported&gt;true&lt;/async-supported&gt;</code>, then the file is sent
+ * in blocking mode in the current thread. The same applies when the response is wrapped by a
+ * {@link HttpServletResponseOutputWrapper}, such as the one of the <code>GzipResponseFilter</code>, because such a
+ * wrapper finishes its output as soon as the filter chain returns, which is while the asynchronous transfer is still
+ * running.
+ * <p>
+ * The asynchronous transfer times out when it takes longer than a minute plus a second per 10 KiB of the file, i.e.
+ * when the client is slower than about 10 KiB per second on average. The file is then closed and the response is
+ * completed, so that a stalled client cannot hold the file and the async context forever.
+ * <p>
+ * Single byte range requests as per the <code>Range</code> request header are supported. Multiple byte range requests
+ * are served with the full file.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ */
+public final class AsyncFileSender {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final Logger logger = Logger.getLogger(AsyncFileSender.class.getName());
+
+	private static final int DEFAULT_CHUNK_SIZE = 10240;
+	private static final long MIN_ASYNC_TIMEOUT = 60000;
+	private static final long MIN_BYTES_PER_SECOND = 10240;
+	private static final Pattern RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+	private static final String WRITE_LISTENER_CLASS_NAME = "javax.servlet.WriteListener";
+	private static final Class<?> WRITE_LISTENER_CLASS = initWriteListenerClass();
+
+	private static final String ERROR_TRANSFER = "Sending file '%s' failed.";
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private AsyncFileSender() {
+		// Hide constructor.
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Send the given file to the given response, taking the <code>Range</code> header of the given request into
+	 * account. The <code>Content-Type</code> and <code>Content-Disposition</code> headers must already be set by the
+	 * caller. This method will set the <code>Accept-Ranges</code>, <code>Content-Length</code> and, if necessary, the
+	 * <code>Content-Range</code> headers and the response status.
+	 * @param request The involved HTTP servlet request.
+	 * @param response The involved HTTP servlet response.
+	 * @param path The file to be sent.
+	 * @throws IOException When the file cannot be opened, or when sending fails in the current thread.
+	 */
+	public static void send(HttpServletRequest request, HttpServletResponse response, Path path) throws IOException {
+		long length = Files.size(path);
+		long start = 0;
+		long end = length - 1;
+		long[] range = parseRange(request.getHeader("Range"), length);
+		response.setHeader("Accept-Ranges", "bytes");
+
+		if (range != null) {
+			start = range[0];
+			end = range[1];
+
+			if (start > end) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.sendError(SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+
+			response.setStatus(SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+		}
+
+		response.setHeader("Content-Length", String.valueOf(end - start + 1));
+		FileChannel channel = FileChannel.open(path, READ);
+
+		try {
+			Transfer transfer = new Transfer(path, channel, start, end - start + 1);
+
+			if (!request.isAsyncSupported() || isOutputWrapped(response)) {
+				transfer.transfer(response.getOutputStream());
+				return;
+			}
+
+			AsyncContext asyncContext = request.startAsync(request, response);
+			asyncContext.setTimeout(MIN_ASYNC_TIMEOUT + ((end - start + 1) / MIN_BYTES_PER_SECOND) * 1000);
+			asyncContext.addListener(transfer);
+			transfer.start(asyncContext);
+		}
+		catch (IOException | RuntimeException e) {
+			Utils.close(channel); // The transfer didn't take over the channel.
+			throw e;
+		}
+	}
+
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Parse the given <code>Range</code> header into the start and end byte positions for a file of the given length.
+	 * Returns <code>null</code> if the full file is to be sent, i.e. when there's no range header, or when it is not a
+	 * single byte range, or when it cannot be parsed. The start position is larger than the end position when the range
+	 * is not satisfiable.
+	 */
+	private static long[] parseRange(String header, long length) {
+		Matcher range = RANGE.matcher(String.valueOf(header));
+
+		if (!range.matches() || (range.group(1).isEmpty() && range.group(2).isEmpty())) {
+			return null;
+		}
+
+		long start;
+		long end = length - 1;
+
+		try {
+			if (range.group(1).isEmpty()) {
+				start = Math.max(length - Long.parseLong(range.group(2)), 0);
+			}
+			else {
+				start = Long.parseLong(range.group(1));
+				end = range.group(2).isEmpty() ? end : Math.min(Long.parseLong(range.group(2)), end);
+			}
+		}
+		catch (NumberFormatException ignore) {
+			return null; // Too large number; serve the full file instead.
+		}
+
+		return new long[] { start, end };
+	}
+
+	/**
+	 * Returns whether the given response is wrapped by a {@link HttpServletResponseOutputWrapper}, which would finish
+	 * its output before the asynchronous transfer has completed.
+	 */
+	private static boolean isOutputWrapped(ServletResponse response) {
+		for (ServletResponse wrapper = response; wrapper instanceof ServletResponseWrapper;
+			wrapper = ((ServletResponseWrapper) wrapper).getResponse())
+		{
+			if (wrapper instanceof HttpServletResponseOutputWrapper) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static Class<?> initWriteListenerClass() {
+		try {
+			return Class.forName(WRITE_LISTENER_CLASS_NAME, false, ServletOutputStream.class.getClassLoader());
+		}
+		catch (ClassNotFoundException ignore) {
+			return null; // Servlet 3.0 container.
+		}
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * A single file transfer. This acts as <code>WriteListener</code> on Servlet 3.1 containers (via a dynamic proxy as
+	 * OmniFaces still supports Servlet 3.0) and as {@link Runnable} on Servlet 3.0 containers. It also acts as
+	 * {@link AsyncListener}, so that the file is closed when the async context completes, times out or fails.
+	 */
+	private static final class Transfer implements Runnable, InvocationHandler, AsyncListener {
+
+		private final Path path;
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private final AtomicBoolean completed = new AtomicBoolean();
+		private long position;
+		private long remaining;
+		private AsyncContext asyncContext;
+		private ServletOutputStream output;
+		private Method isReady;
+
+		public Transfer(Path path, FileChannel channel, long position, long remaining) {
+			this.path = path;
+			this.channel = channel;
+			this.position = position;
+			this.remaining = remaining;
+			buffer = ByteBuffer.allocate((int) Math.max(Math.min(DEFAULT_CHUNK_SIZE, remaining), 1));
+		}
+
+		/**
+		 * Start the transfer on the given async context, in non-blocking mode if possible.
+		 */
+		public void start(AsyncContext asyncContext) throws IOException {
+			this.asyncContext = asyncContext;
+			output = asyncContext.getResponse().getOutputStream();
+
+			if (WRITE_LISTENER_CLASS == null) {
+				asyncContext.start(this);
+				return;
+			}
+
+			try {
+				isReady = ServletOutputStream.class.getMethod("isReady");
+				Object listener = Proxy.newProxyInstance(
+					WRITE_LISTENER_CLASS.getClassLoader(), new Class<?>[] { WRITE_LISTENER_CLASS }, this);
+				ServletOutputStream.class.getMethod("setWriteListener", WRITE_LISTENER_CLASS).invoke(output, listener);
+			}
+			catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+				logger.log(Level.FINE, "WriteListener not supported by container, falling back to blocking mode.", e);
+				isReady = null;
+				asyncContext.start(this);
+			}
+		}
+
+		/**
+		 * Blocking mode on a Servlet 3.0 container.
+		 */
+		@Override
+		public void run() {
+			try {
+				transfer(output);
+			}
+			catch (IOException e) {
+				logger.log(Level.FINE, String.format(ERROR_TRANSFER, path), e);
+			}
+			finally {
+				complete();
+			}
+		}
+
+		/**
+		 * Non-blocking mode on a Servlet 3.1 container; this implements <code>WriteListener#onWritePossible()</code>
+		 * and <code>WriteListener#onError(Throwable)</code>.
+		 */
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "onWritePossible":
+					onWritePossible();
+					return null;
+				case "onError":
+					logger.log(Level.FINE, String.format(ERROR_TRANSFER, path), (Throwable) args[0]);
+					complete();
+					return null;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "WriteListener[" + path + "]";
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		}
+
+		private void onWritePossible() throws IOException {
+			while (isReady()) {
+				if (!writeChunk(output)) {
+					complete();
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Transfer the remainder in blocking mode and close the file afterwards.
+		 */
+		public void transfer(ServletOutputStream output) throws IOException {
+			try {
+				while (writeChunk(output)) {
+					// Continue until done.
+				}
+			}
+			finally {
+				close();
+			}
+		}
+
+		/**
+		 * Read the next chunk from the file and write it to the given output. Returns <code>false</code> when there's
+		 * nothing more to write.
+		 */
+		private boolean writeChunk(ServletOutputStream output) throws IOException {
+			if (remaining <= 0) {
+				return false;
+			}
+
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), remaining));
+			int read = channel.read(buffer, position);
+
+			if (read == -1) {
+				return false; // File has been truncated in meanwhile.
+			}
+
+			output.write(buffer.array(), 0, read);
+			position += read;
+			remaining -= read;
+			return true;
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// NOOP.
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			completed.set(true);
+			close();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			logger.log(Level.FINE, String.format(ERROR_TRANSFER, path) + " Timed out.");
+			complete();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			logger.log(Level.FINE, String.format(ERROR_TRANSFER, path), event.getThrowable());
+			complete();
+		}
+
+		/**
+		 * Close the file and complete the async context, if not already done. This may be invoked concurrently by the
+		 * transfer itself and by the container on timeout or error.
+		 */
+		private void complete() {
+			close();
+
+			if (completed.compareAndSet(false, true)) {
+				asyncContext.complete();
+			}
+		}
+
+		private void close() {
+			Utils.close(channel);
+		}
+
+		private boolean isReady() throws IOException {
+			try {
+				return (Boolean) isReady.invoke(output);
+			}
+			catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+			catch (InvocationTargetException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+	}
+
+}
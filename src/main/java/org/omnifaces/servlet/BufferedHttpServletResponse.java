@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 /**
@@ -24,6 +25,10 @@ import javax.servlet.http.HttpServletResponse;
  * as a byte array via the {@link #getBuffer()} method. Note that the buffered response writer will use same character
  * encoding as is been set on the response supplied to the constructor and that this way any
  * {@link ServletResponse#setCharacterEncoding(String)} calls on the included JSP/Servlet resource have thus no effect.
+ * <p>
+ * The buffer is lazily allocated on first write and thus not allocated at all as long as the response is in
+ * pass-through mode. When constructed with the HTTP servlet request, then the buffer is pre-sized to the estimated
+ * response size as obtained from {@link ResponseSizeStatistics}.
  *
  * @author Bauke Scholtz
  * @since 1.1
@@ -32,7 +37,7 @@ public class BufferedHttpServletResponse extends HttpServletResponseOutputWrappe
 
 	// Properties -----------------------------------------------------------------------------------------------------
 
-	private final ByteArrayOutputStream buffer;
+	private ByteArrayOutputStream buffer;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
 
@@ -42,16 +47,39 @@ public class BufferedHttpServletResponse extends HttpServletResponseOutputWrappe
 	 */
 	public BufferedHttpServletResponse(HttpServletResponse response) {
 		super(response);
-		buffer = new ByteArrayOutputStream(response.getBufferSize());
+	}
+
+	/**
+	 * Construct a buffered HTTP servlet response which wraps the given response and whose buffer is pre-sized to the
+	 * estimated response size of the given request.
+	 * @param request The involved request.
+	 * @param response The response to be wrapped.
+	 * @since 2.1
+	 */
+	public BufferedHttpServletResponse(HttpServletRequest request, HttpServletResponse response) {
+		super(request, response);
 	}
 
 	// Actions --------------------------------------------------------------------------------------------------------
 
 	@Override
 	protected OutputStream createOutputStream() {
+		if (buffer == null) {
+			buffer = new ByteArrayOutputStream(getEstimatedResponseSize());
+		}
+
 		return buffer;
 	}
 
+	@Override
+	public void reset() {
+		super.reset();
+
+		if (buffer != null) {
+			buffer.reset();
+		}
+	}
+
 	/**
 	 * Flushes and returns the buffered response.
 	 * @return The buffered response.
@@ -59,7 +87,7 @@ public class BufferedHttpServletResponse extends HttpServletResponseOutputWrappe
 	 */
 	public byte[] getBuffer() throws IOException {
 		close();
-		return buffer.toByteArray();
+		return (buffer != null) ? buffer.toByteArray() : new byte[0];
 	}
 
 	/**
@@ -18,6 +18,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 /**
@@ -58,6 +59,23 @@ public class GzipHttpServletResponse extends HttpServletResponseOutputWrapper {
 		this.mimetypes = mimetypes;
 	}
 
+	/**
+	 * Construct a new GZIP HTTP servlet response based on the given request, wrapped response, threshold and
+	 * mimetypes. The request is used to pre-size the response buffer based on {@link ResponseSizeStatistics}.
+	 * @param request The involved request.
+	 * @param wrapped The wrapped response.
+	 * @param threshold The GZIP buffer threshold.
+	 * @param mimetypes The mimetypes which needs to be compressed with GZIP.
+	 * @since 2.1
+	 */
+	public GzipHttpServletResponse
+		(HttpServletRequest request, HttpServletResponse wrapped, int threshold, Set<String> mimetypes)
+	{
+		super(request, wrapped);
+		this.threshold = threshold;
+		this.mimetypes = mimetypes;
+	}
+
 	// Actions --------------------------------------------------------------------------------------------------------
 
 	@Override
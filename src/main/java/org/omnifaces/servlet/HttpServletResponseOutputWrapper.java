@@ -17,8 +17,10 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
@@ -36,6 +38,12 @@ import org.omnifaces.io.ResettableBufferedWriter;
  * The boolean property <code>passThrough</code>, which defaults to <code>false</code> also enables the developer to
  * control whether to pass through to the wrapped {@link ServletOutputStream} or not.
  * <p>
+ * When constructed with the HTTP servlet request, then the size of the response body will be recorded in
+ * {@link ResponseSizeStatistics} on {@link #close()} and the resettable buffer will be pre-sized to the estimated
+ * response size of the request URI, so that it doesn't need to grow repeatedly. Subclasses can obtain this estimate
+ * via {@link #getEstimatedResponseSize()}, which is capped at a few times the buffer size, so that a single huge
+ * response doesn't let every later response of the same request URI allocate a huge buffer up front. Nothing will be
+ * allocated as long as the response is in pass-through mode.
  *
  * @author Bauke Scholtz
  * @since 1.1
@@ -44,6 +52,8 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 
 	// Constants ------------------------------------------------------------------------------------------------------
 
+	private static final int MAX_ESTIMATED_RESPONSE_SIZE_IN_BUFFER_SIZES = 4;
+
 	private static final String ERROR_GETOUTPUT_ALREADY_CALLED =
 		"getOutputStream() has already been called on this response.";
 	private static final String ERROR_GETWRITER_ALREADY_CALLED =
@@ -54,6 +64,8 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 	private ServletOutputStream output;
 	private PrintWriter writer;
 	private ResettableBuffer buffer;
+	private CountingOutputStream counter;
+	private String responseSizeKey;
 	private boolean passThrough;
 
 	// Constructors ---------------------------------------------------------------------------------------------------
@@ -66,6 +78,18 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		super(wrappedResponse);
 	}
 
+	/**
+	 * Construct a new {@link HttpServletResponseOutputWrapper} which wraps the given response and records the response
+	 * body size of the given request in {@link ResponseSizeStatistics}.
+	 * @param request The involved request.
+	 * @param wrappedResponse The wrapped response.
+	 * @since 2.1
+	 */
+	public HttpServletResponseOutputWrapper(HttpServletRequest request, HttpServletResponse wrappedResponse) {
+		super(wrappedResponse);
+		responseSizeKey = ResponseSizeStatistics.getKey(request);
+	}
+
 	// Actions --------------------------------------------------------------------------------------------------------
 
 	/**
@@ -85,7 +109,9 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		}
 
 		if (output == null) {
-			buffer = new ResettableBufferedOutputStream(createOutputStream(), getBufferSize());
+			int bufferSize = getBufferSize();
+			buffer = new ResettableBufferedOutputStream(createCountingOutputStream(), bufferSize,
+				Math.min(getEstimatedResponseSize(), bufferSize));
 			output = new ServletOutputStream() {
 				@Override
 				public void write(int b) throws IOException {
@@ -124,8 +150,11 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		}
 
 		if (writer == null) {
-			buffer = new ResettableBufferedWriter(new OutputStreamWriter(createOutputStream(),
-				getCharacterEncoding()), getBufferSize(), getCharacterEncoding());
+			int bufferSize = getBufferSize();
+			String characterEncoding = getCharacterEncoding();
+			int initialCapacity = toCharCount(Math.min(getEstimatedResponseSize(), bufferSize), characterEncoding);
+			buffer = new ResettableBufferedWriter(new OutputStreamWriter(createCountingOutputStream(), characterEncoding),
+				bufferSize, initialCapacity, characterEncoding);
 			writer = new PrintWriter((Writer) buffer);
 		}
 
@@ -149,7 +178,8 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 	}
 
 	/**
-	 * Close the response body. This closes any created writer or output stream.
+	 * Close the response body. This closes any created writer or output stream. If this wrapper was constructed with
+	 * the HTTP servlet request, then the response body size will be recorded in {@link ResponseSizeStatistics}.
 	 * @throws IOException When an I/O error occurs.
 	 */
 	public void close() throws IOException {
@@ -159,6 +189,11 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		else if (output != null) {
 			output.close();
 		}
+
+		if (counter != null && responseSizeKey != null) {
+			ResponseSizeStatistics.record(responseSizeKey, counter.count);
+			responseSizeKey = null; // Record only once.
+		}
 	}
 
 	@Override
@@ -168,10 +203,28 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		if (buffer != null) {
 			buffer.reset();
 		}
+
+		if (counter != null) {
+			counter.count = 0; // The response body written so far is discarded and shouldn't be recorded.
+		}
 	}
 
 	// Getters/setters ------------------------------------------------------------------------------------------------
 
+	/**
+	 * Returns the estimated response body size in bytes based on {@link ResponseSizeStatistics} of the current request
+	 * URI, capped at 4 times {@link #getBufferSize()}. If there is no estimate, e.g. because this wrapper was not
+	 * constructed with the HTTP servlet request, or because the request URI is not seen before, then this falls back
+	 * to {@link #getBufferSize()}.
+	 * @return The estimated response body size in bytes.
+	 * @since 2.1
+	 */
+	protected int getEstimatedResponseSize() {
+		int bufferSize = getBufferSize();
+		int estimatedSize = (responseSizeKey != null) ? ResponseSizeStatistics.getEstimatedSize(responseSizeKey) : 0;
+		return (estimatedSize > 0) ? Math.min(estimatedSize, bufferSize * MAX_ESTIMATED_RESPONSE_SIZE_IN_BUFFER_SIZES) : bufferSize;
+	}
+
 	/**
 	 * Returns whether the response is committed or not. The response is also considered committed when the resettable
 	 * buffer has been flushed.
@@ -200,4 +253,63 @@ public abstract class HttpServletResponseOutputWrapper extends HttpServletRespon
 		this.passThrough = passThrough;
 	}
 
+	// Helpers --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Create the custom output stream and wrap it in a counting output stream so that the response body size can be
+	 * recorded in {@link ResponseSizeStatistics}.
+	 */
+	private OutputStream createCountingOutputStream() {
+		counter = new CountingOutputStream(createOutputStream());
+		return counter;
+	}
+
+	/**
+	 * Convert the given amount of bytes to the amount of characters it represents on average in the given character
+	 * encoding.
+	 */
+	private static int toCharCount(int bytes, String characterEncoding) {
+		return (int) (bytes / Charset.forName(characterEncoding).newEncoder().averageBytesPerChar());
+	}
+
+	// Inner classes --------------------------------------------------------------------------------------------------
+
+	/**
+	 * This output stream counts the amount of bytes written to the wrapped output stream.
+	 *
+	 * @author Bauke Scholtz
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private OutputStream output;
+		private long count;
+
+		public CountingOutputStream(OutputStream output) {
+			this.output = output;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			output.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			output.write(bytes, offset, length);
+			count += length;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			output.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			output.close();
+		}
+
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 OmniFaces.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.omnifaces.servlet;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.omnifaces.util.Servlets;
+import org.omnifaces.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * Keeps track of an exponential moving average of response body sizes per request URI, so that response buffers of
+ * {@link HttpServletResponseOutputWrapper} can be pre-sized to the expected response size instead of growing
+ * repeatedly or over-allocating. The amount of tracked request URIs is bounded by an LRU map, so that arbitrary
+ * (bogus) request URIs cannot let it grow unlimited.
+ * <p>
+ * The collected statistics are available via {@link #getStatistics()}, e.g. for exposure in a monitoring page.
+ *
+ * @author Bauke Scholtz
+ * @since 2.1
+ * @see HttpServletResponseOutputWrapper
+ */
+public final class ResponseSizeStatistics {
+
+	// Constants ------------------------------------------------------------------------------------------------------
+
+	private static final int MAX_TRACKED_REQUEST_URIS = 1000;
+	private static final int MOVING_AVERAGE_WEIGHT_SHIFT = 3; // New sample weighs 1/8 in moving average.
+	private static final int ESTIMATE_HEADROOM_SHIFT = 3; // Estimate is 1/8 larger than moving average.
+
+	private static final ConcurrentMap<String, ResponseSize> RESPONSE_SIZES =
+		new ConcurrentLinkedHashMap.Builder<String, ResponseSize>()
+			.maximumWeightedCapacity(MAX_TRACKED_REQUEST_URIS)
+			.build();
+
+	// Constructors ---------------------------------------------------------------------------------------------------
+
+	private ResponseSizeStatistics() {
+		// Hide constructor.
+	}
+
+	// Actions --------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the key under which the response size statistics of the given request are tracked. This is the request
+	 * URI relative to the context path without path parameters.
+	 * @param request The involved HTTP servlet request.
+	 * @return The key under which the response size statistics of the given request are tracked.
+	 */
+	public static String getKey(HttpServletRequest request) {
+		return Servlets.getRequestRelativeURIWithoutPathParameters(request);
+	}
+
+	/**
+	 * Record the given response body size for the given key.
+	 * @param key The key, usually obtained via {@link #getKey(HttpServletRequest)}.
+	 * @param size The response body size in bytes.
+	 */
+	public static void record(String key, long size) {
+		ResponseSize responseSize = RESPONSE_SIZES.get(key);
+
+		if (responseSize == null) {
+			ResponseSize newResponseSize = new ResponseSize();
+			responseSize = RESPONSE_SIZES.putIfAbsent(key, newResponseSize);
+
+			if (responseSize == null) {
+				responseSize = newResponseSize;
+			}
+		}
+
+		responseSize.record(size);
+	}
+
+	/**
+	 * Returns the estimated response body size in bytes for the given key, or <code>0</code> if there is no estimate.
+	 * @param key The key, usually obtained via {@link #getKey(HttpServletRequest)}.
+	 * @return The estimated response body size in bytes for the given key, or <code>0</code> if there is no estimate.
+	 */
+	public static int getEstimatedSize(String key) {
+		ResponseSize responseSize = RESPONSE_SIZES.get(key);
+
+		if (responseSize == null) {
+			return 0;
+		}
+
+		long average = responseSize.getAverage();
+		return (int) Math.min(average + (average >> ESTIMATE_HEADROOM_SHIFT), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns an unmodifiable view of all currently tracked response size statistics, keyed by request URI.
+	 * @return An unmodifiable view of all currently tracked response size statistics, keyed by request URI.
+	 */
+	public static Map<String, ResponseSize> getStatistics() {
+		return unmodifiableMap(RESPONSE_SIZES);
+	}
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * The response size statistics of a single request URI.
+	 *
+	 * @author Bauke Scholtz
+	 */
+	public static final class ResponseSize {
+
+		private long average;
+		private long maximum;
+		private long count;
+
+		synchronized void record(long size) {
+			average = (count == 0) ? size : (average + ((size - average) >> MOVING_AVERAGE_WEIGHT_SHIFT));
+			maximum = Math.max(maximum, size);
+			count++;
+		}
+
+		/**
+		 * Returns the exponential moving average of the response body size in bytes.
+		 * @return The exponential moving average of the response body size in bytes.
+		 */
+		public synchronized long getAverage() {
+			return average;
+		}
+
+		/**
+		 * Returns the maximum recorded response body size in bytes.
+		 * @return The maximum recorded response body size in bytes.
+		 */
+		public synchronized long getMaximum() {
+			return maximum;
+		}
+
+		/**
+		 * Returns the amount of recorded responses.
+		 * @return The amount of recorded responses.
+		 */
+		public synchronized long getCount() {
+			return count;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return String.format("ResponseSize[average=%d, maximum=%d, count=%d]", average, maximum, count);
+		}
+
+	}
+
+}
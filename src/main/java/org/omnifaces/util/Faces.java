@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -55,6 +56,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.omnifaces.component.ParamHolder;
+import org.omnifaces.servlet.AsyncFileSender;
 
 /**
  * <p>
@@ -1933,4 +1935,37 @@ public final class Faces {
 		FacesLocal.sendFile(getContext(), content, filename, attachment);
 	}
 
+	/**
+	 * Send the given file to the response asynchronously, so that the request thread is released while the file is
+	 * being transferred to the client. On Servlet 3.1 containers this uses a non-blocking <code>WriteListener</code>.
+	 * The content type will be determined based on file name. Range requests are supported. This requires the
+	 * <code>FacesServlet</code> and all filters in the chain to be configured with
+	 * <code>&lt;async-supported&gt;true&lt;/async-supported&gt;</code>, otherwise the file will be sent in blocking
+	 * mode. The file will also be sent in blocking mode when the response is compressed or buffered by a filter such as
+	 * the <code>GzipResponseFilter</code>. The {@link FacesContext#responseComplete()} will implicitly be called.
+	 * @param file The file to be sent to the response.
+	 * @param attachment Whether the file should be provided as attachment, or just inline.
+	 * @throws IOException Whenever something fails at I/O level. The caller should preferably not catch it, but just
+	 * redeclare it in the action method. The servletcontainer will handle it.
+	 * @see AsyncFileSender
+	 * @since 2.1
+	 */
+	public static void sendFileAsync(File file, boolean attachment) throws IOException {
+		FacesLocal.sendFileAsync(getContext(), file, attachment);
+	}
+
+	/**
+	 * Send the given path as a file to the response asynchronously. See {@link #sendFileAsync(File, boolean)} for
+	 * details.
+	 * @param path The file to be sent to the response.
+	 * @param attachment Whether the file should be provided as attachment, or just inline.
+	 * @throws IOException Whenever something fails at I/O level. The caller should preferably not catch it, but just
+	 * redeclare it in the action method. The servletcontainer will handle it.
+	 * @see AsyncFileSender
+	 * @since 2.1
+	 */
+	public static void sendFileAsync(Path path, boolean attachment) throws IOException {
+		FacesLocal.sendFileAsync(getContext(), path, attachment);
+	}
+
 }
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -61,6 +62,7 @@ import javax.servlet.http.HttpSession;
 
 import org.omnifaces.component.ParamHolder;
 import org.omnifaces.config.FacesConfigXml;
+import org.omnifaces.servlet.AsyncFileSender;
 
 /**
  * <p>
@@ -1415,6 +1417,26 @@ public final class FacesLocal {
 		sendFile(context, content, filename, -1, attachment);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see Faces#sendFileAsync(File, boolean)
+	 */
+	public static void sendFileAsync(FacesContext context, File file, boolean attachment) throws IOException {
+		sendFileAsync(context, file.toPath(), attachment);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see Faces#sendFileAsync(Path, boolean)
+	 */
+	public static void sendFileAsync(FacesContext context, Path path, boolean attachment) throws IOException {
+		ExternalContext externalContext = context.getExternalContext();
+		prepareSendFile(context, path.getFileName().toString(), attachment);
+		AsyncFileSender.send((HttpServletRequest) externalContext.getRequest(),
+			(HttpServletResponse) externalContext.getResponse(), path);
+		context.responseComplete();
+	}
+
 	/**
 	 * Internal global method to send the given input stream to the response.
 	 * @param input The file content as input stream.
@@ -1429,18 +1451,7 @@ public final class FacesLocal {
 			throws IOException
 	{
 		ExternalContext externalContext = context.getExternalContext();
-
-		// Prepare the response and set the necessary headers.
-		externalContext.setResponseBufferSize(DEFAULT_SENDFILE_BUFFER_SIZE);
-		externalContext.setResponseContentType(getMimeType(context, filename));
-		externalContext.setResponseHeader("Content-Disposition", String.format(SENDFILE_HEADER,
-			(attachment ? "attachment" : "inline"), encodeURL(filename)));
-
-		// Not exactly mandatory, but this fixes at least a MSIE quirk: http://support.microsoft.com/kb/316431
-		if (((HttpServletRequest) externalContext.getRequest()).isSecure()) {
-			externalContext.setResponseHeader("Cache-Control", "public");
-			externalContext.setResponseHeader("Pragma", "public");
-		}
+		prepareSendFile(context, filename, attachment);
 
 		// If content length is known, set it. Note that setResponseContentLength() cannot be used as it takes only int.
 		if (contentLength != -1) {
@@ -1457,4 +1468,25 @@ public final class FacesLocal {
 		context.responseComplete();
 	}
 
+	/**
+	 * Internal global method to prepare the response for sending a file and set the necessary headers.
+	 * @param filename The file name which should appear in content disposition header.
+	 * @param attachment Whether the file should be provided as attachment, or just inline.
+	 */
+	private static void prepareSendFile(FacesContext context, String filename, boolean attachment) {
+		ExternalContext externalContext = context.getExternalContext();
+
+		// Prepare the response and set the necessary headers.
+		externalContext.setResponseBufferSize(DEFAULT_SENDFILE_BUFFER_SIZE);
+		externalContext.setResponseContentType(getMimeType(context, filename));
+		externalContext.setResponseHeader("Content-Disposition", String.format(SENDFILE_HEADER,
+			(attachment ? "attachment" : "inline"), encodeURL(filename)));
+
+		// Not exactly mandatory, but this fixes at least a MSIE quirk: http://support.microsoft.com/kb/316431
+		if (((HttpServletRequest) externalContext.getRequest()).isSecure()) {
+			externalContext.setResponseHeader("Cache-Control", "public");
+			externalContext.setResponseHeader("Pragma", "public");
+		}
+	}
+
 }
@@ -19,6 +19,11 @@ import static javax.validation.Validation.buildDefaultValidatorFactory;
 import static org.omnifaces.util.Faces.getApplicationAttribute;
 import static org.omnifaces.util.Faces.setApplicationAttribute;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.faces.webapp.FacesServlet;
@@ -43,6 +48,17 @@ public final class Platform {
 	public static final String BEAN_VALIDATION_AVAILABLE = "org.omnifaces.BEAN_VALIDATION_AVAILABLE";
 	private static final Logger logger = Logger.getLogger(Platform.class.getName());
 
+	private static final String MANAGED_EXECUTOR_SERVICE_JNDI_NAME = "java:comp/DefaultManagedExecutorService";
+	private static final String WORKER_THREAD_NAME = "OmniFaces-worker-%d";
+	private static final String LOG_NO_MANAGED_EXECUTOR_SERVICE =
+		"Managed executor service not available. Falling back to an own executor service.";
+
+
+	// Variables ------------------------------------------------------------------------------------------------------
+
+	private static ExecutorService executorService;
+	private static boolean executorServiceManaged;
+
 
 	// Constructors ---------------------------------------------------------------------------------------------------
 
@@ -108,4 +124,72 @@ public final class Platform {
 		return facesServletRegistration;
 	}
 
+
+	// Concurrency ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the executor service via which OmniFaces runs its background tasks. This is the container managed
+	 * executor service as available in JNDI under <code>java:comp/DefaultManagedExecutorService</code> (Java EE 7).
+	 * When not available, then this is a shared cached thread pool with named daemon threads, which must be shut down
+	 * via {@link #shutdownExecutorService()} when the application is destroyed. The executor service is not bounded, so
+	 * callers should limit the amount of tasks they have in flight by themselves.
+	 * @return The executor service via which OmniFaces runs its background tasks.
+	 * @since 2.1
+	 */
+	public static synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			executorService = lookupManagedExecutorService();
+			executorServiceManaged = executorService != null;
+
+			if (!executorServiceManaged) {
+				executorService = Executors.newCachedThreadPool(new WorkerThreadFactory());
+			}
+		}
+
+		return executorService;
+	}
+
+	/**
+	 * Shuts down the executor service as obtained by {@link #getExecutorService()}, if it's not container managed.
+	 * Running tasks will be interrupted. This is invoked by OmniFaces when the application is destroyed.
+	 * @since 2.1
+	 */
+	public static synchronized void shutdownExecutorService() {
+		if (executorService != null && !executorServiceManaged) {
+			executorService.shutdownNow();
+		}
+
+		executorService = null;
+		executorServiceManaged = false;
+	}
+
+	private static ExecutorService lookupManagedExecutorService() {
+		try {
+			return JNDI.lookup(MANAGED_EXECUTOR_SERVICE_JNDI_NAME);
+		}
+		catch (IllegalStateException | ClassCastException e) {
+			logger.log(Level.FINE, LOG_NO_MANAGED_EXECUTOR_SERVICE, e);
+			return null;
+		}
+	}
+
+
+	// Nested classes -------------------------------------------------------------------------------------------------
+
+	/**
+	 * Thread factory creating named daemon threads, so that they are recognizable in thread dumps and don't block the
+	 * JVM from exiting.
+	 */
+	private static class WorkerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, String.format(WORKER_THREAD_NAME, counter.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
 }
\ No newline at end of file
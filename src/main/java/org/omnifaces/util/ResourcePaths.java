@@ -54,13 +54,8 @@ public final class ResourcePaths {
 	 * @return the resource without its extension, of as-is if it doesn't have an extension.
 	 */
 	public static String stripExtension(final String resource) {
-		String normalizedResource = resource;
-		int lastPeriod = resource.lastIndexOf('.');
-		if (lastPeriod != -1) {
-			normalizedResource = resource.substring(0, lastPeriod);
-		}
-
-		return normalizedResource;
+		int extensionStart = extensionStart(resource);
+		return (extensionStart != -1) ? resource.substring(0, extensionStart) : resource;
 	}
 
 	/**
@@ -71,17 +66,37 @@ public final class ResourcePaths {
 	 * @return the extension of the resource, or null if it doesn't have an extension.
 	 */
 	public static String getExtension(final String resource) {
-		String extension = null;
-		int lastPeriod = resource.lastIndexOf('.');
-		if (lastPeriod != -1) {
-			extension = resource.substring(lastPeriod);
+		int extensionStart = extensionStart(resource);
+		return (extensionStart != -1) ? resource.substring(extensionStart) : null;
+	}
+
+	/**
+	 * Gets the index at which the extension of a resource starts, if any. This is the index of the last occurrence of a
+	 * period, so that callers can work with the regions before and after it without creating substrings. E.g. input
+	 * "index.xhtml" will return 5.
+	 *
+	 * @param resource The resource to get the extension start from.
+	 * @return the index at which the extension of the resource starts, or -1 if it doesn't have an extension.
+	 * @since 2.1
+	 */
+	public static int extensionStart(final CharSequence resource) {
+		for (int i = resource.length() - 1; i >= 0; i--) {
+			if (resource.charAt(i) == '.') {
+				return i;
+			}
 		}
 
-		return extension;
+		return -1;
 	}
 
+	/**
+	 * Checks if the given view ID or resource doesn't have an extension.
+	 *
+	 * @param viewId The view ID or resource to check.
+	 * @return true if the view ID or resource is not null and doesn't have an extension, false otherwise.
+	 */
 	public static boolean isExtensionless(final String viewId) {
-		return viewId != null && !viewId.contains(".");
+		return viewId != null && extensionStart(viewId) == -1;
 	}
 
 	/**
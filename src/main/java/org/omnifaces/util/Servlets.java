@@ -13,11 +13,11 @@
 package org.omnifaces.util;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.regex.Pattern.quote;
 import static javax.faces.application.ProjectStage.Development;
 import static javax.faces.application.ProjectStage.PROJECT_STAGE_JNDI_NAME;
 import static javax.faces.application.ProjectStage.PROJECT_STAGE_PARAM_NAME;
 import static org.omnifaces.util.JNDI.lookup;
+import static org.omnifaces.util.Utils.appendEncodedURL;
 import static org.omnifaces.util.Utils.decodeURL;
 import static org.omnifaces.util.Utils.encodeURL;
 import static org.omnifaces.util.Utils.isEmpty;
@@ -118,8 +118,7 @@ public final class Servlets {
 	 * @see HttpServletRequest#getRequestURI()
 	 */
 	public static String getRequestDomainURL(HttpServletRequest request) {
-		String url = request.getRequestURL().toString();
-		return url.substring(0, url.length() - request.getRequestURI().length());
+		return getRequestDomainURLBuffer(request).toString();
 	}
 
 	/**
@@ -132,7 +131,21 @@ public final class Servlets {
 	 * @see HttpServletRequest#getContextPath()
 	 */
 	public static String getRequestBaseURL(HttpServletRequest request) {
-		return getRequestDomainURL(request) + request.getContextPath() + "/";
+		return getRequestDomainURLBuffer(request).append(request.getContextPath()).append('/').toString();
+	}
+
+	/**
+	 * Returns the HTTP request domain URL as a buffer which can be appended to, without creating any intermediate
+	 * strings. This is the {@link HttpServletRequest#getRequestURL()} buffer, truncated before the request URI.
+	 * @param request The involved HTTP servlet request.
+	 * @return The HTTP request domain URL as a buffer which can be appended to.
+	 * @since 2.1
+	 * @see #getRequestDomainURL(HttpServletRequest)
+	 */
+	public static StringBuffer getRequestDomainURLBuffer(HttpServletRequest request) {
+		StringBuffer url = request.getRequestURL();
+		url.setLength(url.length() - request.getRequestURI().length());
+		return url;
 	}
 
 	/**
@@ -245,22 +258,33 @@ public final class Servlets {
 	 * @since 1.7
 	 */
 	public static Map<String, List<String>> toParameterMap(String queryString) {
-		String[] parameters = queryString.split(quote("&"));
-		Map<String, List<String>> parameterMap = new LinkedHashMap<>(parameters.length);
-
-		for (String parameter : parameters) {
-			if (parameter.contains("=")) {
-				String[] pair = parameter.split(quote("="));
-				String key = decodeURL(pair[0]);
-				String value = (pair.length > 1 && !isEmpty(pair[1])) ? decodeURL(pair[1]) : "";
-				List<String> values = parameterMap.get(key);
-
-				if (values == null) {
-					values = new ArrayList<>(1);
-					parameterMap.put(key, values);
+		Map<String, List<String>> parameterMap = new LinkedHashMap<>();
+		int length = queryString.length();
+		int start = 0;
+		int separator = -1;
+
+		for (int i = 0; i <= length; i++) {
+			char c = (i < length) ? queryString.charAt(i) : '&';
+
+			if (c == '=' && separator == -1) {
+				separator = i;
+			}
+			else if (c == '&') {
+				if (separator != -1) { // Parameters without "=" are ignored.
+					String key = decodeURL(queryString, start, separator);
+					String value = decodeURL(queryString, separator + 1, i);
+					List<String> values = parameterMap.get(key);
+
+					if (values == null) {
+						values = new ArrayList<>(1);
+						parameterMap.put(key, values);
+					}
+
+					values.add(value);
 				}
 
-				values.add(value);
+				start = i + 1;
+				separator = -1;
 			}
 		}
 
@@ -274,17 +298,26 @@ public final class Servlets {
 	 * @since 2.0
 	 */
 	public static String toQueryString(Map<String, List<String>> parameterMap) {
-		StringBuilder queryString = new StringBuilder();
+		int capacity = 0;
+
+		for (Entry<String, List<String>> entry : parameterMap.entrySet()) {
+			for (String value : entry.getValue()) {
+				capacity += entry.getKey().length() + ((value != null) ? value.length() : 0) + 2; // Plus "=" and "&".
+			}
+		}
+
+		StringBuilder queryString = new StringBuilder(capacity);
 
 		for (Entry<String, List<String>> entry : parameterMap.entrySet()) {
 			String name = encodeURL(entry.getKey());
 
 			for (String value : entry.getValue()) {
 				if (queryString.length() > 0) {
-					queryString.append("&");
+					queryString.append('&');
 				}
 
-				queryString.append(name).append("=").append(encodeURL(value));
+				queryString.append(name).append('=');
+				appendEncodedURL(queryString, value);
 			}
 		}
 
@@ -19,16 +19,16 @@ import static java.util.regex.Pattern.quote;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.text.ParseException;
@@ -52,6 +52,8 @@ import java.util.zip.InflaterInputStream;
 
 import javax.xml.bind.DatatypeConverter;
 
+import org.omnifaces.io.ByteBufferPool;
+
 /**
  * <p>
  * Collection of general utility methods that do not fit in one of the more specific classes.
@@ -73,6 +75,9 @@ public final class Utils {
 	// Constants ------------------------------------------------------------------------------------------------------
 
 	private static final int DEFAULT_STREAM_BUFFER_SIZE = 10240;
+	private static final int MAX_POOLED_STREAM_BUFFERS = 64;
+	private static final ByteBufferPool STREAM_BUFFER_POOL =
+		new ByteBufferPool(DEFAULT_STREAM_BUFFER_SIZE, MAX_POOLED_STREAM_BUFFERS);
 	private static final String PATTERN_RFC1123_DATE = "EEE, dd MMM yyyy HH:mm:ss zzz";
 	private static final TimeZone TIMEZONE_GMT = TimeZone.getTimeZone("GMT");
 	private static final int BASE64_SEGMENT_LENGTH = 4;
@@ -82,7 +87,13 @@ public final class Utils {
 	private static final int UNICODE_END_PRINTABLE_ASCII = 0x7f;
 	private static final int UNICODE_BEGIN_PRINTABLE_ASCII = 0x20;
 
-	private static final String ERROR_UNSUPPORTED_ENCODING = "UTF-8 is apparently not supported on this platform.";
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final int URL_ENCODING_HEADROOM = 16;
+
+	private static final String ERROR_ILLEGAL_URL_ESCAPE =
+		"Illegal hex characters in URL escape (%%) pattern at index %d of '%s'.";
+	private static final String ERROR_INCOMPLETE_URL_ESCAPE =
+		"Incomplete trailing URL escape (%%) pattern in '%s'.";
 
 	// Constructors ---------------------------------------------------------------------------------------------------
 
@@ -318,9 +329,12 @@ public final class Utils {
 	// I/O ------------------------------------------------------------------------------------------------------------
 
 	/**
-	 * Stream the given input to the given output via a directly allocated NIO {@link ByteBuffer}.
-	 * Both the input and output streams will implicitly be closed after streaming,
-	 * regardless of whether an exception is been thrown or not.
+	 * Stream the given input to the given output via a directly allocated NIO {@link ByteBuffer} which is obtained from
+	 * a bounded pool, see {@link #getStreamBufferPool()}. If the given input is a {@link FileInputStream} of which the
+	 * size is known, then its {@link FileChannel#transferTo(long, long, WritableByteChannel)} will be used instead, which
+	 * doesn't need a buffer at all and may even be zero-copy. Any remainder, e.g. of a pipe or a device of which the size
+	 * is unknown, is still streamed via the buffer. Both the input and output streams will implicitly be closed after
+	 * streaming, regardless of whether an exception is been thrown or not.
 	 * @param input The input stream.
 	 * @param output The output stream.
 	 * @return The length of the written bytes.
@@ -330,19 +344,69 @@ public final class Utils {
 		try (ReadableByteChannel inputChannel = Channels.newChannel(input);
 			WritableByteChannel outputChannel = Channels.newChannel(output))
 		{
-			ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_STREAM_BUFFER_SIZE);
 			long size = 0;
 
-			while (inputChannel.read(buffer) != -1) {
-				buffer.flip();
-				size += outputChannel.write(buffer);
-				buffer.clear();
+			if (input instanceof FileInputStream) {
+				size = transfer(((FileInputStream) input).getChannel(), outputChannel);
 			}
 
-			return size;
+			ByteBuffer buffer = STREAM_BUFFER_POOL.acquire();
+
+			try {
+				while (inputChannel.read(buffer) != -1) {
+					buffer.flip();
+					size += outputChannel.write(buffer);
+					buffer.clear();
+				}
+
+				return size;
+			}
+			finally {
+				STREAM_BUFFER_POOL.release(buffer);
+			}
 		}
 	}
 
+	/**
+	 * Transfer the given file channel to the given output channel for as far as its size is known, and position the file
+	 * channel after the transferred bytes, so that the caller can read any remainder. The size is unknown, i.e. 0, for
+	 * e.g. a pipe or a device, in which case nothing is transferred.
+	 */
+	private static long transfer(FileChannel inputChannel, WritableByteChannel outputChannel) throws IOException {
+		long fileSize = inputChannel.size();
+
+		if (fileSize <= 0) {
+			return 0; // Don't touch the position; a pipe doesn't support it.
+		}
+
+		long position = inputChannel.position();
+		long length = fileSize - position;
+		long size = 0;
+
+		while (size < length) {
+			long transferred = inputChannel.transferTo(position + size, length - size, outputChannel);
+
+			if (transferred <= 0) {
+				break; // End of file reached before the known size, e.g. when it's truncated or virtual.
+			}
+
+			size += transferred;
+		}
+
+		inputChannel.position(position + size);
+		return size;
+	}
+
+	/**
+	 * Returns the pool of direct buffers used by {@link #stream(InputStream, OutputStream)}. This is useful to monitor
+	 * the buffer pool metrics.
+	 * @return The pool of direct buffers used by {@link #stream(InputStream, OutputStream)}.
+	 * @since 2.1
+	 */
+	public static ByteBufferPool getStreamBufferPool() {
+		return STREAM_BUFFER_POOL;
+	}
+
 	/**
 	 * Read the given input stream into a byte array. The given input stream will implicitly be closed after streaming,
 	 * regardless of whether an exception is been thrown or not.
@@ -625,10 +689,10 @@ public final class Utils {
 	}
 
 	/**
-	 * URL-encode the given string using UTF-8.
+	 * URL-encode the given string using UTF-8. This produces the same result as {@link java.net.URLEncoder} does for
+	 * UTF-8, but the given string is returned as-is when there's nothing to encode.
 	 * @param string The string to be URL-encoded using UTF-8.
 	 * @return The given string, URL-encoded using UTF-8, or <code>null</code> if <code>null</code> was given.
-	 * @throws UnsupportedOperationException When this platform does not support UTF-8.
 	 * @since 1.4
 	 */
 	public static String encodeURL(String string) {
@@ -636,19 +700,110 @@ public final class Utils {
 			return null;
 		}
 
-		try {
-			return URLEncoder.encode(string, UTF_8.name());
+		int start = indexOfURLEncoding(string);
+
+		if (start == -1) {
+			return string;
 		}
-		catch (UnsupportedEncodingException e) {
-			throw new UnsupportedOperationException(ERROR_UNSUPPORTED_ENCODING, e);
+
+		StringBuilder builder = new StringBuilder(string.length() + URL_ENCODING_HEADROOM).append(string, 0, start);
+		encodeURL(builder, string, start);
+		return builder.toString();
+	}
+
+	/**
+	 * URL-encode the given string using UTF-8 and append it to the given builder, without creating an intermediate
+	 * string.
+	 * @param builder The builder to append the URL-encoded string to.
+	 * @param string The string to be URL-encoded using UTF-8.
+	 */
+	static void appendEncodedURL(StringBuilder builder, String string) {
+		int start = (string != null) ? indexOfURLEncoding(string) : -1;
+
+		if (start == -1) {
+			builder.append(string);
+		}
+		else {
+			builder.append(string, 0, start);
+			encodeURL(builder, string, start);
+		}
+	}
+
+	/**
+	 * Returns the index of the first character of the given string which needs to be URL-encoded, or -1 if none.
+	 */
+	private static int indexOfURLEncoding(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			if (!isURLSafe(string.charAt(i))) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns whether the given character doesn't need to be URL-encoded, conform {@link java.net.URLEncoder}.
+	 */
+	private static boolean isURLSafe(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+			|| c == '.' || c == '-' || c == '*' || c == '_';
+	}
+
+	private static void encodeURL(StringBuilder builder, String string, int start) {
+		int length = string.length();
+
+		for (int i = start; i < length; i++) {
+			char c = string.charAt(i);
+
+			if (isURLSafe(c)) {
+				builder.append(c);
+			}
+			else if (c == ' ') {
+				builder.append('+');
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+				appendURLEncodedUTF8(builder, Character.toCodePoint(c, string.charAt(++i)));
+			}
+			else {
+				// An unpaired surrogate is not representable in UTF-8 and becomes a '?', like in URLEncoder.
+				appendURLEncodedUTF8(builder, Character.isSurrogate(c) ? '?' : c);
+			}
 		}
 	}
 
+	private static void appendURLEncodedUTF8(StringBuilder builder, int codePoint) {
+		if (codePoint < 0x80) {
+			appendURLEncodedByte(builder, codePoint);
+		}
+		else if (codePoint < 0x800) {
+			appendURLEncodedByte(builder, 0xC0 | (codePoint >> 6));
+			appendURLEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+		}
+		else if (codePoint < 0x10000) {
+			appendURLEncodedByte(builder, 0xE0 | (codePoint >> 12));
+			appendURLEncodedByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+			appendURLEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+		}
+		else {
+			appendURLEncodedByte(builder, 0xF0 | (codePoint >> 18));
+			appendURLEncodedByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+			appendURLEncodedByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+			appendURLEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+		}
+	}
+
+	private static void appendURLEncodedByte(StringBuilder builder, int b) {
+		builder.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]);
+	}
+
 	/**
-	 * URL-decode the given string using UTF-8.
+	 * URL-decode the given string using UTF-8. This produces the same result as {@link java.net.URLDecoder} does for
+	 * UTF-8, but the given string is returned as-is when there's nothing to decode, and a sign in an escape pattern,
+	 * such as <code>%+A</code>, is not accepted as a hex character.
 	 * @param string The string to be URL-decode using UTF-8.
 	 * @return The given string, URL-decode using UTF-8, or <code>null</code> if <code>null</code> was given.
-	 * @throws UnsupportedOperationException When this platform does not support UTF-8.
+	 * @throws IllegalArgumentException When the given string contains an illegal or incomplete escape pattern.
 	 * @since 1.4
 	 */
 	public static String decodeURL(String string) {
@@ -656,12 +811,70 @@ public final class Utils {
 			return null;
 		}
 
-		try {
-			return URLDecoder.decode(string, UTF_8.name());
+		return decodeURL(string, 0, string.length());
+	}
+
+	/**
+	 * URL-decode the given region of the given string using UTF-8, without creating an intermediate substring.
+	 * @param string The string containing the region to be URL-decoded using UTF-8.
+	 * @param start The start index of the region, inclusive.
+	 * @param end The end index of the region, exclusive.
+	 * @return The given region, URL-decoded using UTF-8.
+	 * @throws IllegalArgumentException When the given region contains an illegal or incomplete escape pattern.
+	 */
+	static String decodeURL(String string, int start, int end) {
+		int i = start;
+
+		while (i < end && string.charAt(i) != '%' && string.charAt(i) != '+') {
+			i++;
 		}
-		catch (UnsupportedEncodingException e) {
-			throw new UnsupportedOperationException(ERROR_UNSUPPORTED_ENCODING, e);
+
+		if (i == end) {
+			return (start == end) ? "" : string.substring(start, end);
+		}
+
+		StringBuilder builder = new StringBuilder(end - start).append(string, start, i);
+		byte[] bytes = null;
+
+		while (i < end) {
+			char c = string.charAt(i);
+
+			if (c == '+') {
+				builder.append(' ');
+				i++;
+			}
+			else if (c == '%') {
+				if (bytes == null) {
+					bytes = new byte[(end - i) / 3]; // Enough for all remaining escape patterns.
+				}
+
+				int count = 0;
+
+				while (i + 2 < end && string.charAt(i) == '%') {
+					int high = Character.digit(string.charAt(i + 1), 16);
+					int low = Character.digit(string.charAt(i + 2), 16);
+
+					if (high == -1 || low == -1) {
+						throw new IllegalArgumentException(String.format(ERROR_ILLEGAL_URL_ESCAPE, i, string));
+					}
+
+					bytes[count++] = (byte) ((high << 4) | low);
+					i += 3;
+				}
+
+				if (i < end && string.charAt(i) == '%') {
+					throw new IllegalArgumentException(String.format(ERROR_INCOMPLETE_URL_ESCAPE, string));
+				}
+
+				builder.append(new String(bytes, 0, count, UTF_8));
+			}
+			else {
+				builder.append(c);
+				i++;
+			}
 		}
+
+		return builder.toString();
 	}
 
 	// Escaping/unescaping --------------------------------------------------------------------------------------------